@@ -1,16 +1,13 @@
 package ru.practicum.events;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.HitDto;
+import ru.practicum.HitTimestamps;
 import ru.practicum.StatsDto;
 import ru.practicum.categories.Category;
 import ru.practicum.categories.CategoryMapper;
@@ -28,21 +25,17 @@ import ru.practicum.requests.dto.ParticipationRequestDto;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.stats.HitBatcher;
 import ru.practicum.stats.StatsClient;
 import ru.practicum.users.User;
 import ru.practicum.users.UserRepository;
-import ru.practicum.utils.UtilPatterns;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import static java.time.format.DateTimeFormatter.ofPattern;
-
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -57,6 +50,7 @@ public class EventServiceImpl implements EventService {
     private final RequestRepository requestRepository;
     private final LocationRepository locationRepository;
     private final StatsClient statsClient;
+    private final HitBatcher hitBatcher;
 
     @Transactional(readOnly = true)
     @Override
@@ -421,9 +415,7 @@ public class EventServiceImpl implements EventService {
         LocalDateTime end = LocalDateTime.now();
         String uris = "/events/" + event.getId();
 
-        ResponseEntity<Object> stats = statsClient.getStats(start, end, uris, true);
-
-        List<StatsDto> statsDto = extractStats(stats);
+        List<StatsDto> statsDto = statsClient.getStatsList(start, end, uris, true);
         log.info("Stats object: " + statsDto);
 
         if (statsDto != null && statsDto.size() == 1) {
@@ -435,45 +427,30 @@ public class EventServiceImpl implements EventService {
         return event;
     }
 
-    private List<StatsDto> extractStats(ResponseEntity<Object> response) {
-        if (response == null || response.getStatusCode() != HttpStatus.OK) {
-            return Collections.emptyList();
-        }
-
-        Object body = response.getBody();
-        if (body instanceof List) {
-            ObjectMapper objectMapper = new ObjectMapper();
-            return objectMapper.convertValue(body, new TypeReference<List<StatsDto>>() {
-            });
-        }
-
-        return Collections.emptyList();
-    }
-
     private void sendUriForStatistic(HttpServletRequest request, Event event) {
         LocalDateTime actualDate = LocalDateTime.now();
-        String date = actualDate.format(DateTimeFormatter.ofPattern(UtilPatterns.DATE_PATTERN));
+        String date = HitTimestamps.format(actualDate);
 
         HitDto hitDto = new HitDto();
         hitDto.setIp(request.getRemoteAddr());
         hitDto.setApp("main");
         hitDto.setUri("/events");
         hitDto.setTimestamp(date);
-        statsClient.addHit(hitDto);
+        hitBatcher.record(hitDto);
 
         addOneHit(request.getRemoteAddr(), event.getId(), actualDate);
     }
 
     private void sendUrisForStatistic(HttpServletRequest request, List<Event> events) {
         LocalDateTime actualDate = LocalDateTime.now();
-        String date = actualDate.format(DateTimeFormatter.ofPattern(UtilPatterns.DATE_PATTERN));
+        String date = HitTimestamps.format(actualDate);
 
         HitDto hitDto = new HitDto();
         hitDto.setIp(request.getRemoteAddr());
         hitDto.setApp("main");
         hitDto.setUri("/events");
         hitDto.setTimestamp(date);
-        statsClient.addHit(hitDto);
+        hitBatcher.record(hitDto);
 
         addSeveralHits(request.getRemoteAddr(), events, LocalDateTime.now());
     }
@@ -484,11 +461,11 @@ public class EventServiceImpl implements EventService {
                 .ip(ip)
                 .app("main")
                 .uri("/events/" + eventId)
-                .timestamp(hitTime.format(ofPattern(UtilPatterns.DATE_PATTERN)))
+                .timestamp(HitTimestamps.format(hitTime))
                 .build();
 
         log.info("HitDto added: " + hitDto);
-        statsClient.addHit(hitDto);
+        hitBatcher.record(hitDto);
     }
 
     private void addSeveralHits(String ip,
@@ -503,10 +480,10 @@ public class EventServiceImpl implements EventService {
                 .ip(ip)
                 .app("main")
                 .uri(uriString)
-                .timestamp(hitTime.format(ofPattern(UtilPatterns.DATE_PATTERN)))
+                .timestamp(HitTimestamps.format(hitTime))
                 .build();
 
-        statsClient.addHit(hitDto);
+        hitBatcher.record(hitDto);
     }
 
 }
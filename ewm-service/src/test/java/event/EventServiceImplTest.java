@@ -20,6 +20,7 @@ import ru.practicum.events.dto.EventShortDto;
 import ru.practicum.events.dto.NewEventDto;
 import ru.practicum.requests.*;
 import ru.practicum.requests.dto.ParticipationRequestDto;
+import ru.practicum.stats.HitBatcher;
 import ru.practicum.stats.StatsClient;
 import ru.practicum.users.User;
 import ru.practicum.users.UserRepository;
@@ -63,6 +64,9 @@ class EventServiceImplTest {
     @Mock
     private StatsClient statsClient;
 
+    @Mock
+    private HitBatcher hitBatcher;
+
     @Mock
     private HttpServletRequest httpServletRequest;
 
@@ -208,7 +212,7 @@ class EventServiceImplTest {
         EventFullDto result = eventService.getPublicFilteredEventById(1L, httpServletRequest);
 
         assertEquals(eventFullDto, result);
-        verify(statsClient, times(2)).addHit(any());
+        verify(hitBatcher, times(2)).record(any());
         verify(eventMapper).toEventFullDto(event);
     }
 
@@ -0,0 +1,35 @@
+package ru.practicum.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with a pinned JVM configuration and the GC profiler, so allocation per operation
+ * ({@code gc.alloc.rate.norm}) is reported next to the timings, and writes the results as JMH JSON,
+ * so runs from different commits can be compared side by side (e.g. with jmh.morethan.io).
+ *
+ * <pre>java -jar benchmarks.jar [include-regex] [result.json]</pre>
+ */
+public class BenchmarkRunner {
+    private static final String DEFAULT_INCLUDE = "ru\\.practicum\\.bench\\..*Benchmark";
+    private static final String DEFAULT_RESULT = "jmh-result.json";
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : DEFAULT_INCLUDE;
+        String result = args.length > 1 ? args[1] : DEFAULT_RESULT;
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .jvmArgs("-Xms1g", "-Xmx1g", "-XX:+UseG1GC")
+                .addProfiler(GCProfiler.class)
+                .shouldFailOnError(true)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+        new Runner(options).run();
+    }
+}
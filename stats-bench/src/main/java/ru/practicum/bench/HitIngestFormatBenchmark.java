@@ -0,0 +1,76 @@
+package ru.practicum.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.CompactHitDto;
+import ru.practicum.HitBinaryCodec;
+import ru.practicum.HitDto;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitIngestFormatBenchmark {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private LocalDateTime timestamp;
+    private HitDto hitDto;
+    private CompactHitDto compactHitDto;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        timestamp = LocalDateTime.of(2024, 5, 17, 12, 30, 15);
+        hitDto = new HitDto(null, "ewm-main-service", "/events/12345", "192.168.100.200",
+                timestamp.format(FORMATTER));
+        compactHitDto = new CompactHitDto("ewm-main-service", "/events/12345", "192.168.100.200",
+                HitBinaryCodec.toEpochMillis(timestamp));
+        json = objectMapper.writeValueAsBytes(hitDto);
+        binary = HitBinaryCodec.encode(compactHitDto);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        HitDto dto = new HitDto(null, "ewm-main-service", "/events/12345", "192.168.100.200",
+                timestamp.format(FORMATTER));
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        CompactHitDto dto = new CompactHitDto("ewm-main-service", "/events/12345", "192.168.100.200",
+                HitBinaryCodec.toEpochMillis(timestamp));
+        return HitBinaryCodec.encode(dto);
+    }
+
+    @Benchmark
+    public LocalDateTime decodeJson() throws IOException {
+        HitDto dto = objectMapper.readValue(json, HitDto.class);
+        return LocalDateTime.parse(dto.getTimestamp(), FORMATTER);
+    }
+
+    @Benchmark
+    public LocalDateTime decodeBinary() {
+        CompactHitDto dto = HitBinaryCodec.decodeAll(binary).get(0);
+        return HitBinaryCodec.fromEpochMillis(dto.getTimestamp());
+    }
+}
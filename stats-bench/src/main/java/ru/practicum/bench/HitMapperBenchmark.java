@@ -0,0 +1,66 @@
+package ru.practicum.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.HitDto;
+import ru.practicum.mapper.HitMapper;
+import ru.practicum.model.Hit;
+import ru.practicum.repository.HitDictionaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitMapperBenchmark {
+    private HitMapper hitMapper;
+    private HitDto hitDto;
+    private Hit hit;
+
+    @Setup
+    public void setUp() {
+        hitMapper = new HitMapper(new InMemoryDictionary());
+        hitDto = new HitDto(null, "ewm-main-service", "/events/12345", "192.168.100.200", "2024-05-17 12:30:15");
+        hit = new Hit(1L, "/events/12345", "ewm-main-service", "192.168.100.200",
+                LocalDateTime.of(2024, 5, 17, 12, 30, 15));
+        hitMapper.fromDtoToHit(hitDto);
+    }
+
+    @Benchmark
+    public Hit fromDtoToHit() {
+        return hitMapper.fromDtoToHit(hitDto);
+    }
+
+    @Benchmark
+    public HitDto fromHitToDto() {
+        return hitMapper.fromHitToDto(hit);
+    }
+
+    private static class InMemoryDictionary extends HitDictionaryRepository {
+        InMemoryDictionary() {
+            super(null, null);
+        }
+
+        @Override
+        public int getOrCreateId(String dictionary, String name) {
+            return APPS.equals(dictionary) ? 1 : 2;
+        }
+
+        @Override
+        public String findName(String dictionary, int id) {
+            return APPS.equals(dictionary) ? "ewm-main-service" : "/events/12345";
+        }
+    }
+}
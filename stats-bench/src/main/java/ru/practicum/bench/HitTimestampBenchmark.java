@@ -0,0 +1,88 @@
+package ru.practicum.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.HitBinaryCodec;
+import ru.practicum.HitTimestamps;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link HitTimestamps} with {@link DateTimeFormatter} for the hit timestamp pattern.
+ * Run with {@code -prof gc} to see allocation per operation next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitTimestampBenchmark {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(HitTimestamps.PATTERN);
+
+    private String text;
+    private LocalDateTime timestamp;
+    private long epochMillis;
+
+    @Setup
+    public void setUp() {
+        text = "2024-05-17 12:30:15";
+        timestamp = LocalDateTime.of(2024, 5, 17, 12, 30, 15);
+        epochMillis = HitBinaryCodec.toEpochMillis(timestamp);
+    }
+
+    @Benchmark
+    public LocalDateTime parseFormatter() {
+        return LocalDateTime.parse(text, FORMATTER);
+    }
+
+    @Benchmark
+    public LocalDateTime parseFixed() {
+        return HitTimestamps.parse(text);
+    }
+
+    @Benchmark
+    public long parseEpochMillisFormatter() {
+        return HitBinaryCodec.toEpochMillis(LocalDateTime.parse(text, FORMATTER));
+    }
+
+    @Benchmark
+    public long parseEpochMillisFixed() {
+        return HitTimestamps.parseEpochMillis(text);
+    }
+
+    @Benchmark
+    public String formatFormatter() {
+        return timestamp.format(FORMATTER);
+    }
+
+    @Benchmark
+    public String formatOfPatternPerCall() {
+        return timestamp.format(DateTimeFormatter.ofPattern(HitTimestamps.PATTERN));
+    }
+
+    @Benchmark
+    public String formatFixed() {
+        return HitTimestamps.format(timestamp);
+    }
+
+    @Benchmark
+    public String formatEpochMillisFormatter() {
+        return HitBinaryCodec.fromEpochMillis(epochMillis).format(FORMATTER);
+    }
+
+    @Benchmark
+    public String formatEpochMillisFixed() {
+        return HitTimestamps.format(epochMillis);
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.HitDto;
+import ru.practicum.stats.StatsClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the client side of a stats round trip: parameter formatting, URI expansion, body encoding
+ * and response decoding. Requests are answered by {@link InMemoryRequestFactory}, so no server or network
+ * is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsClientBenchmark {
+    private static final byte[] HIT_RESPONSE = ("{\"id\":1,\"app\":\"ewm-main-service\",\"uri\":\"/events/12345\","
+            + "\"ip\":\"192.168.100.200\",\"timestamp\":\"2024-05-17 12:30:15\"}").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] STATS_RESPONSE =
+            "[{\"app\":\"ewm-main-service\",\"uri\":\"/events/1\",\"hits\":42}]".getBytes(StandardCharsets.UTF_8);
+
+    private StatsClient jsonClient;
+    private StatsClient binaryClient;
+    private HitDto hitDto;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup
+    public void setUp() {
+        jsonClient = new StatsClient("http://stats-server:9090", false, new InMemoryRequestFactory(STATS_RESPONSE, HIT_RESPONSE));
+        binaryClient = new StatsClient("http://stats-server:9090", true, new InMemoryRequestFactory(STATS_RESPONSE, HIT_RESPONSE));
+        hitDto = new HitDto(null, "ewm-main-service", "/events/12345", "192.168.100.200", "2024-05-17 12:30:15");
+        start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        end = LocalDateTime.of(2024, 12, 31, 23, 59, 59);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> addHitJson() {
+        return jsonClient.addHit(hitDto);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> addHitBinary() {
+        return binaryClient.addHit(hitDto);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> getStats() {
+        return jsonClient.getStats(start, end, "/events/1,/events/2,/events/3", true);
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.bench;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import ru.practicum.client.HttpPoolProperties;
+import ru.practicum.client.PooledHttpTransport;
+import ru.practicum.stats.StatsClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call latency of {@link StatsClient#getStats} over loopback HTTP with the plain JDK
+ * {@code HttpURLConnection} transport versus the pooled keep-alive transport, with {@value #THREADS}
+ * concurrent callers. The server answers from memory, so the difference is connection handling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(StatsClientTransportBenchmark.THREADS)
+@Fork(1)
+public class StatsClientTransportBenchmark {
+    static final int THREADS = 8;
+
+    private static final byte[] STATS_RESPONSE =
+            "[{\"app\":\"ewm-main-service\",\"uri\":\"/events/1\",\"hits\":42}]".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"simple", "pooled"})
+    private String transport;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private StatsClient client;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        serverExecutor = Executors.newFixedThreadPool(THREADS);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.setExecutor(serverExecutor);
+        server.createContext("/stats", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, STATS_RESPONSE.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(STATS_RESPONSE);
+            }
+        });
+        server.start();
+
+        HttpPoolProperties pool = new HttpPoolProperties();
+        pool.setMaxPerRoute(THREADS);
+        ClientHttpRequestFactory requestFactory = transport.equals("pooled")
+                ? PooledHttpTransport.requestFactory("bench", pool, new SimpleMeterRegistry())
+                : new SimpleClientHttpRequestFactory();
+        client = new StatsClient("http://localhost:" + server.getAddress().getPort(), false, requestFactory);
+        start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        end = LocalDateTime.of(2024, 12, 31, 23, 59, 59);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> getStats() {
+        return client.getStats(start, end, "/events/1", false);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.HitDto;
+import ru.practicum.StatsDto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsJsonBenchmark {
+    private static final TypeReference<List<StatsDto>> STATS_LIST = new TypeReference<>() {
+    };
+
+    @Param({"10", "1000"})
+    private int statsRows;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private HitDto hitDto;
+    private byte[] hitJson;
+    private List<StatsDto> stats;
+    private byte[] statsJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        hitDto = new HitDto(null, "ewm-main-service", "/events/12345", "192.168.100.200", "2024-05-17 12:30:15");
+        hitJson = objectMapper.writeValueAsBytes(hitDto);
+        stats = new ArrayList<>(statsRows);
+        for (int i = 0; i < statsRows; i++) {
+            stats.add(new StatsDto("ewm-main-service", "/events/" + i, statsRows - i));
+        }
+        statsJson = objectMapper.writeValueAsBytes(stats);
+    }
+
+    @Benchmark
+    public byte[] writeHit() throws IOException {
+        return objectMapper.writeValueAsBytes(hitDto);
+    }
+
+    @Benchmark
+    public HitDto readHit() throws IOException {
+        return objectMapper.readValue(hitJson, HitDto.class);
+    }
+
+    @Benchmark
+    public byte[] writeStats() throws IOException {
+        return objectMapper.writeValueAsBytes(stats);
+    }
+
+    @Benchmark
+    public List<StatsDto> readStats() throws IOException {
+        return objectMapper.readValue(statsJson, STATS_LIST);
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.StatsDto;
+import ru.practicum.mapper.HitMapper;
+import ru.practicum.projection.StatsProjection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsProjectionBenchmark {
+    @Param({"10", "1000", "100000"})
+    private int rows;
+
+    private HitMapper hitMapper;
+    private List<StatsProjection> projections;
+
+    @Setup
+    public void setUp() {
+        hitMapper = new HitMapper(null);
+        projections = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            projections.add(new Row("ewm-main-service", "/events/" + i, (long) rows - i, (long) rows - i));
+        }
+    }
+
+    @Benchmark
+    public List<StatsDto> mapProjections() {
+        return projections.stream()
+                .map(hitMapper::fromProjectionToStatsDto)
+                .collect(Collectors.toList());
+    }
+
+    private record Row(String getApp, String getUri, Long getHits, Long getMatched) implements StatsProjection {
+    }
+}
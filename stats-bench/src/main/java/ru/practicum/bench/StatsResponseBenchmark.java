@@ -0,0 +1,70 @@
+package ru.practicum.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.StatsDto;
+import ru.practicum.stats.StatsClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a {@code /stats} response into {@code List<StatsDto>}: the untyped path reads the body into a
+ * {@code LinkedHashMap} tree and converts it with a fresh {@link ObjectMapper}, the typed path streams it
+ * straight into {@link StatsDto} with a shared reader. Run with the GC profiler to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsResponseBenchmark {
+    @Param({"1", "100"})
+    private int rows;
+
+    private StatsClient client;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < rows; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"app\":\"ewm-main-service\",\"uri\":\"/events/").append(i)
+                    .append("\",\"hits\":").append(1000 - i).append('}');
+        }
+        byte[] response = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+
+        client = new StatsClient("http://stats-server:9090", false, new InMemoryRequestFactory(response, response));
+        start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        end = LocalDateTime.of(2024, 12, 31, 23, 59, 59);
+    }
+
+    @Benchmark
+    public List<StatsDto> untyped() {
+        ResponseEntity<Object> response = client.getStats(start, end, "/events/1", true);
+        return new ObjectMapper().convertValue(response.getBody(), new TypeReference<List<StatsDto>>() {
+        });
+    }
+
+    @Benchmark
+    public List<StatsDto> typed() {
+        return client.getStatsList(start, end, "/events/1", true);
+    }
+}
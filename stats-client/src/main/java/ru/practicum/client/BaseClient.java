@@ -1,32 +1,93 @@
 package ru.practicum.client;
 
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class BaseClient {
     protected final RestTemplate rest;
+    protected final WebClient webClient;
+    private final ClientHttpConnector connector;
 
     public BaseClient(String serverUrl) {
-        this.rest = new RestTemplate();
+        this(serverUrl, new SimpleClientHttpRequestFactory());
+    }
+
+    public BaseClient(String serverUrl, ClientHttpRequestFactory requestFactory) {
+        this(serverUrl, requestFactory, new ReactorClientHttpConnector());
+    }
+
+    public BaseClient(String serverUrl, ClientHttpRequestFactory requestFactory, ClientHttpConnector connector) {
+        this.connector = connector;
+        this.rest = new RestTemplate(requestFactory);
         rest.setUriTemplateHandler(new DefaultUriBuilderFactory(serverUrl));
+        this.webClient = WebClient.builder()
+                .baseUrl(serverUrl)
+                .clientConnector(connector)
+                .build();
+    }
+
+    @PreDestroy
+    public void close() throws Exception {
+        if (rest.getRequestFactory() instanceof DisposableBean requestFactory) {
+            requestFactory.destroy();
+        }
+        if (connector instanceof DisposableBean pooledConnector) {
+            pooledConnector.destroy();
+        }
     }
 
     protected ResponseEntity<Object> get(String path, Map<String, Object> parameters) {
         return sendRequest(HttpMethod.GET, path, parameters, null);
     }
 
+    protected <T> T get(String path, Map<String, Object> parameters, ResponseExtractor<T> extractor) {
+        return rest.execute(path, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                extractor, parameters);
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return sendRequest(HttpMethod.POST, path, null, body);
     }
 
+    protected ResponseEntity<Object> post(String path, byte[] body, MediaType contentType) {
+        return sendRequest(HttpMethod.POST, path, null, body, contentType);
+    }
+
+    protected CompletableFuture<ResponseEntity<Object>> getAsync(String path, Map<String, Object> parameters) {
+        return sendRequestAsync(HttpMethod.GET, path, parameters, null, MediaType.APPLICATION_JSON);
+    }
+
+    protected <T> CompletableFuture<ResponseEntity<Object>> postAsync(String path, T body) {
+        return sendRequestAsync(HttpMethod.POST, path, Map.of(), body, MediaType.APPLICATION_JSON);
+    }
+
+    protected CompletableFuture<ResponseEntity<Object>> postAsync(String path, byte[] body, MediaType contentType) {
+        return sendRequestAsync(HttpMethod.POST, path, Map.of(), body, contentType);
+    }
+
     private <T> ResponseEntity<Object> sendRequest(HttpMethod method, String path,
                                                    Map<String, Object> parameters, T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, createHeaders());
+        return sendRequest(method, path, parameters, body, MediaType.APPLICATION_JSON);
+    }
+
+    private <T> ResponseEntity<Object> sendRequest(HttpMethod method, String path,
+                                                   Map<String, Object> parameters, T body, MediaType contentType) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, createHeaders(contentType));
         try {
             if (parameters != null) {
                 return rest.exchange(path, method, requestEntity, Object.class, parameters);
@@ -37,9 +98,20 @@ public class BaseClient {
         }
     }
 
-    private HttpHeaders createHeaders() {
+    private <T> CompletableFuture<ResponseEntity<Object>> sendRequestAsync(HttpMethod method, String path,
+                                                                           Map<String, Object> parameters, T body,
+                                                                           MediaType contentType) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters)
+                .headers(headers -> headers.addAll(createHeaders(contentType)));
+        WebClient.RequestHeadersSpec<?> spec = body != null ? request.bodyValue(body) : request;
+        return spec.exchangeToMono(response -> response.toEntity(Object.class))
+                .toFuture();
+    }
+
+    private HttpHeaders createHeaders(MediaType contentType) {
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentType(contentType);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         return headers;
     }
@@ -0,0 +1,26 @@
+package ru.practicum.client;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+public class HttpPoolProperties {
+    private int maxTotal = 50;
+
+    private int maxPerRoute = 20;
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+
+    private Duration idleTimeout = Duration.ofSeconds(30);
+
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
@@ -0,0 +1,120 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpResponse;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Keep-alive connection pools shared by all calls of one client: an Apache HttpClient pool for the blocking
+ * {@code RestTemplate} and a Reactor Netty pool for the {@code WebClient}. Both are bounded per route,
+ * evict idle and expired connections and publish their state as Micrometer gauges tagged with the pool name.
+ * Both transports are {@link DisposableBean}s that release their pool when the owning client is closed.
+ */
+public final class PooledHttpTransport {
+    private PooledHttpTransport() {
+    }
+
+    public static HttpComponentsClientHttpRequestFactory requestFactory(String name, HttpPoolProperties properties,
+                                                                        MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotal())
+                .setMaxConnPerRoute(properties.getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(timeout(properties.getConnectTimeout()))
+                        .setSocketTimeout(timeout(properties.getReadTimeout()))
+                        .setTimeToLive(timeValue(properties.getTimeToLive()))
+                        .setValidateAfterInactivity(timeValue(properties.getValidateAfterInactivity()))
+                        .build())
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoTimeout(timeout(properties.getReadTimeout()))
+                        .setTcpNoDelay(true)
+                        .build())
+                .build();
+        if (meterRegistry != null) {
+            new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(meterRegistry);
+        }
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout(properties.getAcquireTimeout()))
+                        .setResponseTimeout(timeout(properties.getReadTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(timeValue(properties.getIdleTimeout()))
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    public static PooledConnector connector(String name, HttpPoolProperties properties) {
+        ConnectionProvider provider = ConnectionProvider.builder(name)
+                .maxConnections(properties.getMaxPerRoute())
+                .pendingAcquireTimeout(properties.getAcquireTimeout())
+                .maxIdleTime(properties.getIdleTimeout())
+                .maxLifeTime(properties.getTimeToLive())
+                .evictInBackground(properties.getIdleTimeout())
+                .metrics(true)
+                .build();
+        return new PooledConnector(provider, new ReactorClientHttpConnector(HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(properties.getConnectTimeout().toMillis()))
+                .responseTimeout(properties.getReadTimeout())));
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    private static TimeValue timeValue(Duration duration) {
+        return TimeValue.ofMilliseconds(duration.toMillis());
+    }
+
+    public static final class PooledConnector implements ClientHttpConnector, DisposableBean {
+        private final ConnectionProvider provider;
+        private final ClientHttpConnector delegate;
+        private volatile boolean disposed;
+
+        private PooledConnector(ConnectionProvider provider, ClientHttpConnector delegate) {
+            this.provider = provider;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Mono<ClientHttpResponse> connect(HttpMethod method, URI uri,
+                                                Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
+            return delegate.connect(method, uri, requestCallback);
+        }
+
+        @Override
+        public void destroy() {
+            disposed = true;
+            provider.dispose();
+        }
+
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
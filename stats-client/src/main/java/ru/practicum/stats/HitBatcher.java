@@ -0,0 +1,244 @@
+package ru.practicum.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.HitDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Buffers hits in a bounded lock-free queue and posts them to {@code /hits} from a single background thread,
+ * whenever {@code batch-size} hits are waiting or every {@code flush-interval}.
+ * Stops after the web server so that hits recorded by in-flight requests are flushed on shutdown;
+ * a hit queued while {@link #stop()} drains the queue is flushed by the recording thread itself.
+ * When disabled or not running, hits are sent one by one with {@link StatsClient#addHitAsync}.
+ * Hits that cannot be delivered, or arrive while the {@link HitSpool} circuit is open, go to the spool.
+ */
+@Slf4j
+@Component
+public class HitBatcher implements SmartLifecycle {
+    private final StatsClient statsClient;
+    private final HitSpool hitSpool;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final DropPolicy dropPolicy;
+    private final Queue<HitDto> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private final Counter sentCounter;
+    private final Counter overflowCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    public HitBatcher(StatsClient statsClient,
+                      HitSpool hitSpool,
+                      @Value("${stats.client.batch.enabled:false}") boolean enabled,
+                      @Value("${stats.client.batch.capacity:10000}") int capacity,
+                      @Value("${stats.client.batch.size:500}") int batchSize,
+                      @Value("${stats.client.batch.flush-interval:1s}") Duration flushInterval,
+                      @Value("${stats.client.batch.drop-policy:DROP_NEWEST}") DropPolicy dropPolicy,
+                      MeterRegistry meterRegistry) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Hit batch capacity and size should be positive");
+        }
+        this.statsClient = statsClient;
+        this.hitSpool = hitSpool;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.dropPolicy = dropPolicy;
+
+        Gauge.builder("stats.client.hits.queued", size, AtomicInteger::get)
+                .description("Hits waiting to be sent to the stats server")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("stats.client.hits.sent")
+                .description("Hits sent to the stats server in batches")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("stats.client.hits.dropped")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("stats.client.hits.dropped")
+                .tag("reason", "send_failed")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(HitDto hit) {
+        if (!running) {
+            send(hit);
+            return;
+        }
+
+        if (size.incrementAndGet() > capacity) {
+            overflowCounter.increment();
+            if (dropPolicy == DropPolicy.DROP_NEWEST || queue.poll() == null) {
+                size.decrementAndGet();
+                return;
+            }
+            size.decrementAndGet();
+        }
+        queue.offer(hit);
+        if (!running) {
+            flushAll();
+            return;
+        }
+
+        if (size.get() >= batchSize && flushPending.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flushFullBatches);
+            } catch (RejectedExecutionException e) {
+                flushPending.set(false);
+            }
+        }
+    }
+
+    private void send(HitDto hit) {
+        if (!hitSpool.isServerAvailable()) {
+            hitSpool.append(List.of(hit));
+            return;
+        }
+
+        statsClient.addHitAsync(hit).whenComplete((response, e) -> {
+            if (e != null || HitSpool.isServerError(response)) {
+                hitSpool.onFailed(List.of(hit));
+            } else {
+                hitSpool.onSent();
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "stats-hit-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushAll, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        running = true;
+        log.info("Stats hit batcher started: capacity {}, batch size {}, flush interval {}, {}",
+                capacity, batchSize, flushInterval, dropPolicy);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(flushInterval.toMillis() + 5_000, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+        log.info("Stats hit batcher stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void flushFullBatches() {
+        flushPending.set(false);
+        while (size.get() >= batchSize) {
+            if (flush() == 0) {
+                return;
+            }
+        }
+    }
+
+    private void flushAll() {
+        int flushed;
+        do {
+            flushed = flush();
+        } while (flushed > 0);
+    }
+
+    private int flush() {
+        List<HitDto> batch = new ArrayList<>(batchSize);
+        HitDto hit;
+        while (batch.size() < batchSize && (hit = queue.poll()) != null) {
+            batch.add(hit);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        size.addAndGet(-batch.size());
+
+        if (!hitSpool.isServerAvailable()) {
+            hitSpool.append(batch);
+            return batch.size();
+        }
+
+        try {
+            ResponseEntity<Object> response = statsClient.addHits(batch);
+            if (HitSpool.isServerError(response)) {
+                failed(batch, response.getStatusCode().toString());
+            } else if (response.getStatusCode().is2xxSuccessful()) {
+                hitSpool.onSent();
+                sentCounter.increment(batch.size());
+            } else {
+                hitSpool.onSent();
+                failedCounter.increment(batch.size());
+                log.warn("Stats server rejected a batch of {} hits: {}", batch.size(), response.getStatusCode());
+            }
+        } catch (RuntimeException e) {
+            failed(batch, e.toString());
+        }
+        return batch.size();
+    }
+
+    private void failed(List<HitDto> batch, String reason) {
+        if (!hitSpool.isEnabled()) {
+            failedCounter.increment(batch.size());
+        }
+        hitSpool.onFailed(batch);
+        log.warn("Failed to send a batch of {} hits to stats server: {}", batch.size(), reason);
+    }
+
+    public enum DropPolicy {
+        DROP_NEWEST,
+        DROP_OLDEST
+    }
+}
@@ -0,0 +1,335 @@
+package ru.practicum.stats;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.HitDto;
+import ru.practicum.client.CircuitBreaker;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Keeps hits that could not be delivered while stats-server is unavailable.
+ * The {@link StatsClient} circuit breaker tracks delivery failures; while it is open, hits are appended as NDJSON lines to
+ * numbered segment files under {@code directory} instead of being sent. A background thread rotates the
+ * current segment and replays closed segments oldest first through {@code POST /hits} once the breaker lets
+ * a request through, rewriting a segment to its unsent tail when a batch fails.
+ * The spool is bounded by {@code max-size}; hits that do not fit are dropped.
+ */
+@Slf4j
+@Component
+public class HitSpool implements SmartLifecycle {
+    private static final String FILE_PREFIX = "hits-";
+    private static final String FILE_SUFFIX = ".ndjson";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final StatsClient statsClient;
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final int replayBatchSize;
+    private final Duration replayInterval;
+    private final CircuitBreaker circuitBreaker;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong bytes = new AtomicLong();
+    private final Counter spooledCounter;
+    private final Counter replayedCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+    private BufferedWriter writer;
+    private long segment;
+
+    public HitSpool(StatsClient statsClient,
+                    @Value("${stats.client.spool.enabled:false}") boolean enabled,
+                    @Value("${stats.client.spool.directory:stats-spool}") Path directory,
+                    @Value("${stats.client.spool.max-size:64MB}") DataSize maxSize,
+                    @Value("${stats.client.spool.replay-batch-size:500}") int replayBatchSize,
+                    @Value("${stats.client.spool.replay-interval:5s}") Duration replayInterval,
+                    MeterRegistry meterRegistry) throws IOException {
+        this.statsClient = statsClient;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.maxBytes = maxSize.toBytes();
+        this.replayBatchSize = replayBatchSize;
+        this.replayInterval = replayInterval;
+        this.circuitBreaker = statsClient.getCircuitBreaker();
+
+        if (enabled) {
+            Files.createDirectories(directory);
+            for (Path file : segments()) {
+                bytes.addAndGet(Files.size(file));
+                segment = Math.max(segment, segmentNumber(file) + 1);
+            }
+        }
+
+        Gauge.builder("stats.client.spool.size", bytes, AtomicLong::get)
+                .description("Bytes of hits waiting in the local spool")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("stats.client.circuit.open", circuitBreaker,
+                        breaker -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("Whether delivery to stats-server is short-circuited")
+                .register(meterRegistry);
+        this.spooledCounter = Counter.builder("stats.client.hits.spooled")
+                .description("Hits written to the local spool")
+                .register(meterRegistry);
+        this.replayedCounter = Counter.builder("stats.client.hits.replayed")
+                .description("Spooled hits delivered to stats-server")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("stats.client.hits.dropped")
+                .tag("reason", "spool_full")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isServerAvailable() {
+        return !enabled || circuitBreaker.allowRequest();
+    }
+
+    public void onSent() {
+        if (enabled) {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    public void onFailed(List<HitDto> hits) {
+        if (enabled) {
+            circuitBreaker.onFailure();
+            append(hits);
+        }
+    }
+
+    public static boolean isServerError(ResponseEntity<?> response) {
+        return StatsClient.isServerError(response.getStatusCode());
+    }
+
+    public void append(List<HitDto> hits) {
+        if (!enabled) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(segmentFile(segment), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (HitDto hit : hits) {
+                String line = objectMapper.writeValueAsString(hit) + '\n';
+                long length = line.getBytes(StandardCharsets.UTF_8).length;
+                if (bytes.get() + length > maxBytes) {
+                    droppedCounter.increment();
+                    continue;
+                }
+                writer.write(line);
+                bytes.addAndGet(length);
+                spooledCounter.increment();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            droppedCounter.increment(hits.size());
+            log.error("Failed to spool {} hits to {}", hits.size(), directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "stats-hit-spool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::replay, replayInterval.toMillis(), replayInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        running = true;
+        log.info("Stats hit spool started in {} with {} spooled bytes", directory, bytes.get());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            closeWriter();
+        } finally {
+            lock.unlock();
+        }
+        log.info("Stats hit spool stopped with {} spooled bytes", bytes.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    public void replay() {
+        if (bytes.get() == 0 || !circuitBreaker.allowRequest()) {
+            return;
+        }
+
+        long current;
+        lock.lock();
+        try {
+            if (writer != null) {
+                closeWriter();
+                segment++;
+            }
+            current = segment;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            for (Path file : segments()) {
+                if (segmentNumber(file) >= current || !replaySegment(file)) {
+                    return;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to replay spooled hits from {}", directory, e);
+        }
+    }
+
+    private boolean replaySegment(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (int from = 0; from < lines.size(); from += replayBatchSize) {
+            List<String> chunk = lines.subList(from, Math.min(from + replayBatchSize, lines.size()));
+            List<HitDto> hits = parse(chunk);
+            if (hits.isEmpty()) {
+                continue;
+            }
+
+            boolean delivered;
+            try {
+                ResponseEntity<Object> response = statsClient.addHits(hits);
+                delivered = !isServerError(response);
+                if (!response.getStatusCode().is2xxSuccessful() && delivered) {
+                    log.warn("Stats server rejected {} spooled hits: {}", hits.size(), response.getStatusCode());
+                }
+            } catch (RuntimeException e) {
+                delivered = false;
+            }
+
+            if (!delivered) {
+                circuitBreaker.onFailure();
+                keepTail(file, lines.subList(from, lines.size()));
+                return false;
+            }
+            circuitBreaker.onSuccess();
+            replayedCounter.increment(hits.size());
+        }
+
+        long size = Files.size(file);
+        Files.delete(file);
+        bytes.addAndGet(-size);
+        log.info("Replayed {} spooled hits from {}", lines.size(), file.getFileName());
+        return true;
+    }
+
+    private List<HitDto> parse(List<String> lines) {
+        List<HitDto> hits = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            try {
+                hits.add(objectMapper.readValue(line, HitDto.class));
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping malformed spooled hit: {}", e.getOriginalMessage());
+            }
+        }
+        return hits;
+    }
+
+    private void keepTail(Path file, List<String> tail) throws IOException {
+        long size = Files.size(file);
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        Files.write(temp, tail, StandardCharsets.UTF_8);
+        long kept = Files.size(temp);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        bytes.addAndGet(kept - size);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.error("Failed to close hit spool segment {}", segmentFile(segment), e);
+        } finally {
+            writer = null;
+        }
+    }
+
+    private Path segmentFile(long number) {
+        return directory.resolve(String.format("%s%020d%s", FILE_PREFIX, number, FILE_SUFFIX));
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+    }
+}
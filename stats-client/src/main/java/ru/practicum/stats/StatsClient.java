@@ -1,29 +1,95 @@
 package ru.practicum.stats;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
 
+import ru.practicum.CompactHitDto;
+import ru.practicum.HitBinaryCodec;
 import ru.practicum.HitDto;
+import ru.practicum.HitTimestamps;
+import ru.practicum.StatsDto;
 
 import ru.practicum.client.BaseClient;
-import ru.practicum.utils.UtilPatterns;
+import ru.practicum.client.CircuitBreaker;
+import ru.practicum.client.HttpPoolProperties;
+import ru.practicum.client.PooledHttpTransport;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 @Slf4j
 @Service
 public class StatsClient extends BaseClient {
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(UtilPatterns.DATE_PATTERN);
+    private static final MediaType BINARY_HIT = MediaType.parseMediaType(HitBinaryCodec.MEDIA_TYPE_VALUE);
+    private static final String POOL_NAME = "stats-client";
+    private static final ObjectReader STATS_READER = new ObjectMapper().readerForListOf(StatsDto.class);
+
+    private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    private static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(10);
+
+    private final boolean binaryHits;
+    private final CircuitBreaker circuitBreaker;
 
     @Autowired
-    public StatsClient(@Value("http://stats-server:9090") String serverUrl) {
-        super(serverUrl);
+    public StatsClient(@Value("http://stats-server:9090") String serverUrl,
+                       @Value("${stats.client.binary-hits:false}") boolean binaryHits,
+                       @Value("${stats.client.circuit.failure-threshold:5}") int failureThreshold,
+                       @Value("${stats.client.circuit.open-duration:10s}") Duration openDuration,
+                       Environment environment,
+                       ObjectProvider<MeterRegistry> meterRegistry) {
+        this(serverUrl, binaryHits, poolProperties(environment), meterRegistry.getIfAvailable(),
+                new CircuitBreaker(failureThreshold, openDuration));
+    }
+
+    public StatsClient(String serverUrl, boolean binaryHits, ClientHttpRequestFactory requestFactory) {
+        this(serverUrl, binaryHits, requestFactory,
+                PooledHttpTransport.connector(POOL_NAME, new HttpPoolProperties()));
+    }
+
+    public StatsClient(String serverUrl, boolean binaryHits, ClientHttpRequestFactory requestFactory,
+                       ClientHttpConnector connector) {
+        this(serverUrl, binaryHits, requestFactory, connector,
+                new CircuitBreaker(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION));
+    }
+
+    public StatsClient(String serverUrl, boolean binaryHits, ClientHttpRequestFactory requestFactory,
+                       ClientHttpConnector connector, CircuitBreaker circuitBreaker) {
+        super(serverUrl, requestFactory, connector);
+        this.binaryHits = binaryHits;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    private StatsClient(String serverUrl, boolean binaryHits, HttpPoolProperties pool, MeterRegistry meterRegistry,
+                        CircuitBreaker circuitBreaker) {
+        this(serverUrl, binaryHits, PooledHttpTransport.requestFactory(POOL_NAME, pool, meterRegistry),
+                PooledHttpTransport.connector(POOL_NAME, pool), circuitBreaker);
+    }
+
+    private static HttpPoolProperties poolProperties(Environment environment) {
+        return Binder.get(environment)
+                .bind("stats.client.http", HttpPoolProperties.class)
+                .orElseGet(HttpPoolProperties::new);
     }
 
     public ResponseEntity<Object> addHit(HitDto hitDto) {
@@ -31,14 +97,100 @@ public class StatsClient extends BaseClient {
             throw new IllegalArgumentException("HitDto cannot be null");
         }
         log.info("HitDto recieved from main service: " + hitDto);
+        if (binaryHits) {
+            return addHit(hitDto.getApp(), hitDto.getUri(), hitDto.getIp(),
+                    HitTimestamps.parse(hitDto.getTimestamp()));
+        }
         return post("/hit", hitDto);
     }
 
+    public ResponseEntity<Object> addHit(String app, String uri, String ip, LocalDateTime timestamp) {
+        if (app == null || uri == null || ip == null || timestamp == null) {
+            throw new IllegalArgumentException("Hit fields cannot be null");
+        }
+        CompactHitDto hit = new CompactHitDto(app, uri, ip, HitBinaryCodec.toEpochMillis(timestamp));
+        return post("/hit", HitBinaryCodec.encode(hit), BINARY_HIT);
+    }
+
+    public ResponseEntity<Object> addHits(List<HitDto> hitDtos) {
+        if (hitDtos == null || hitDtos.isEmpty()) {
+            throw new IllegalArgumentException("Hits cannot be empty");
+        }
+        return post("/hits", hitDtos);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> addHitAsync(HitDto hitDto) {
+        if (hitDto == null) {
+            throw new IllegalArgumentException("HitDto cannot be null");
+        }
+        CompletableFuture<ResponseEntity<Object>> response;
+        if (binaryHits) {
+            CompactHitDto hit = new CompactHitDto(hitDto.getApp(), hitDto.getUri(), hitDto.getIp(),
+                    HitTimestamps.parseEpochMillis(hitDto.getTimestamp()));
+            response = postAsync("/hit", HitBinaryCodec.encode(hit), BINARY_HIT);
+        } else {
+            response = postAsync("/hit", hitDto);
+        }
+        return response.whenComplete((result, e) -> {
+            if (e != null) {
+                log.warn("Failed to send hit {} to stats server: {}", hitDto.getUri(), e.toString());
+            } else if (!result.getStatusCode().is2xxSuccessful()) {
+                log.warn("Stats server rejected hit {}: {}", hitDto.getUri(), result.getStatusCode());
+            }
+        });
+    }
+
     public ResponseEntity<Object> getStats(LocalDateTime start, LocalDateTime end,
                                            String uris, boolean unique) {
         log.info("getStas method of client called");
         log.info("parameters: {}, {}, {}, {}", start, end, uris, unique);
 
+        Map<String, Object> parameters = statsParameters(start, end, uris, unique);
+        log.info("/stats called with params: " + parameters);
+        return get(statsPath(parameters), parameters);
+    }
+
+    public List<StatsDto> getStatsList(LocalDateTime start, LocalDateTime end, String uris, boolean unique) {
+        Map<String, Object> parameters = statsParameters(start, end, uris, unique);
+        if (!circuitBreaker.allowRequest()) {
+            return List.of();
+        }
+
+        try {
+            List<StatsDto> stats = get(statsPath(parameters), parameters,
+                    response -> STATS_READER.readValue(response.getBody()));
+            circuitBreaker.onSuccess();
+            return stats;
+        } catch (HttpStatusCodeException e) {
+            if (isServerError(e.getStatusCode())) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            log.warn("Stats server returned {} for stats with params {}", e.getStatusCode(), parameters);
+            return List.of();
+        } catch (RestClientException e) {
+            circuitBreaker.onFailure();
+            log.warn("Failed to read stats with params {}: {}", parameters, e.toString());
+            return List.of();
+        }
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public static boolean isServerError(HttpStatusCode status) {
+        return status.is5xxServerError() || status.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getStatsAsync(LocalDateTime start, LocalDateTime end,
+                                                                   String uris, boolean unique) {
+        Map<String, Object> parameters = statsParameters(start, end, uris, unique);
+        return getAsync(statsPath(parameters), parameters);
+    }
+
+    private Map<String, Object> statsParameters(LocalDateTime start, LocalDateTime end, String uris, boolean unique) {
         if (start == null || end == null) {
             throw new IllegalArgumentException("Start and end dates cannot be null");
         }
@@ -46,23 +198,19 @@ public class StatsClient extends BaseClient {
             throw new IllegalArgumentException("Start date must be before end date");
         }
 
-
-        String urisString = (uris == null || uris.isEmpty()) ? "" : uris;
-
-        Map<String, Object> parameters = new java.util.HashMap<>();
-        parameters.put("start", start.format(FORMATTER));
-        parameters.put("end", end.format(FORMATTER));
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("start", HitTimestamps.format(start));
+        parameters.put("end", HitTimestamps.format(end));
         parameters.put("unique", unique);
-
-        if (urisString.isEmpty()) {
-            log.info("/stats called with params: " + parameters);
-            return get("/stats?start={start}&end={end}&unique={unique}", parameters);
+        if (uris != null && !uris.isEmpty()) {
+            parameters.put("uris", uris);
         }
+        return parameters;
+    }
 
-        parameters.put("uris", urisString);
-
-        log.info("/stats called with params: " + parameters);
-        return get("/stats?start={start}&end={end}&uris={uris}&unique={unique}", parameters);
-
+    private String statsPath(Map<String, Object> parameters) {
+        return parameters.containsKey("uris")
+                ? "/stats?start={start}&end={end}&uris={uris}&unique={unique}"
+                : "/stats?start={start}&end={end}&unique={unique}";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package ru.practicum.client;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.StatsClient;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PooledHttpTransportTest {
+
+    @Test
+    void closingTheClientDisposesTheConnectionProvider() throws Exception {
+        HttpPoolProperties properties = new HttpPoolProperties();
+        PooledHttpTransport.PooledConnector connector = PooledHttpTransport.connector("test", properties);
+        StatsClient client = new StatsClient("http://stats-server:9090", false,
+                PooledHttpTransport.requestFactory("test", properties, null), connector);
+
+        assertFalse(connector.isDisposed());
+        client.close();
+
+        assertTrue(connector.isDisposed());
+    }
+}
@@ -0,0 +1,175 @@
+package ru.practicum.stats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.HitDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class HitBatcherTest {
+    private static final Duration LONG_INTERVAL = Duration.ofMinutes(10);
+
+    private StatsClient statsClient;
+    private HitSpool hitSpool;
+    private MeterRegistry meterRegistry;
+    private List<List<HitDto>> delivered;
+    private HitBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        statsClient = mock(StatsClient.class);
+        hitSpool = mock(HitSpool.class);
+        when(hitSpool.isServerAvailable()).thenReturn(true);
+        meterRegistry = new SimpleMeterRegistry();
+        delivered = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            delivered.add(List.copyOf(invocation.getArgument(0)));
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        }).when(statsClient).addHits(anyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    void sendsHitsOneByOneWhenNotRunning() {
+        when(statsClient.addHitAsync(any())).thenReturn(
+                CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CREATED).build()));
+        batcher = createBatcher(10, 2, LONG_INTERVAL, HitBatcher.DropPolicy.DROP_NEWEST);
+
+        batcher.record(hit("/events/1"));
+
+        verify(statsClient).addHitAsync(hit("/events/1"));
+        verify(statsClient, never()).addHits(anyList());
+    }
+
+    @Test
+    void flushesWhenBatchIsFull() throws InterruptedException {
+        CountDownLatch sent = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            delivered.add(List.copyOf(invocation.getArgument(0)));
+            sent.countDown();
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        }).when(statsClient).addHits(anyList());
+        batcher = createBatcher(10, 2, LONG_INTERVAL, HitBatcher.DropPolicy.DROP_NEWEST);
+        batcher.start();
+
+        batcher.record(hit("/events/1"));
+        batcher.record(hit("/events/2"));
+
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        batcher.stop();
+        assertEquals(List.of(List.of(hit("/events/1"), hit("/events/2"))), delivered);
+        assertEquals(2.0, meterRegistry.get("stats.client.hits.sent").counter().count());
+    }
+
+    @Test
+    void flushesPartialBatchOnInterval() throws InterruptedException {
+        CountDownLatch sent = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            delivered.add(List.copyOf(invocation.getArgument(0)));
+            sent.countDown();
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        }).when(statsClient).addHits(anyList());
+        batcher = createBatcher(10, 5, Duration.ofMillis(50), HitBatcher.DropPolicy.DROP_NEWEST);
+        batcher.start();
+
+        batcher.record(hit("/events/1"));
+
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of(hit("/events/1"))), delivered);
+    }
+
+    @Test
+    void dropsNewestHitsWhenQueueIsFull() {
+        batcher = createBatcher(2, 5, LONG_INTERVAL, HitBatcher.DropPolicy.DROP_NEWEST);
+        batcher.start();
+
+        batcher.record(hit("/events/1"));
+        batcher.record(hit("/events/2"));
+        batcher.record(hit("/events/3"));
+        assertEquals(2.0, meterRegistry.get("stats.client.hits.queued").gauge().value());
+        batcher.stop();
+
+        assertEquals(List.of(List.of(hit("/events/1"), hit("/events/2"))), delivered);
+        assertEquals(1.0, meterRegistry.get("stats.client.hits.dropped").tag("reason", "queue_full")
+                .counter().count());
+    }
+
+    @Test
+    void dropsOldestHitsWhenQueueIsFull() {
+        batcher = createBatcher(2, 5, LONG_INTERVAL, HitBatcher.DropPolicy.DROP_OLDEST);
+        batcher.start();
+
+        batcher.record(hit("/events/1"));
+        batcher.record(hit("/events/2"));
+        batcher.record(hit("/events/3"));
+        batcher.stop();
+
+        assertEquals(List.of(List.of(hit("/events/2"), hit("/events/3"))), delivered);
+        assertEquals(1.0, meterRegistry.get("stats.client.hits.dropped").tag("reason", "queue_full")
+                .counter().count());
+    }
+
+    @Test
+    void flushesQueuedHitsOnStop() {
+        batcher = createBatcher(10, 5, LONG_INTERVAL, HitBatcher.DropPolicy.DROP_NEWEST);
+        batcher.start();
+
+        batcher.record(hit("/events/1"));
+        batcher.stop();
+
+        assertFalse(batcher.isRunning());
+        assertEquals(List.of(List.of(hit("/events/1"))), delivered);
+        assertEquals(0.0, meterRegistry.get("stats.client.hits.queued").gauge().value());
+    }
+
+    @Test
+    void spoolsFailedBatches() {
+        doReturn(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()).when(statsClient).addHits(anyList());
+        batcher = createBatcher(10, 5, LONG_INTERVAL, HitBatcher.DropPolicy.DROP_NEWEST);
+        batcher.start();
+
+        batcher.record(hit("/events/1"));
+        batcher.stop();
+
+        verify(hitSpool).onFailed(List.of(hit("/events/1")));
+    }
+
+    @Test
+    void stopsAfterTheWebServer() {
+        batcher = createBatcher(10, 5, LONG_INTERVAL, HitBatcher.DropPolicy.DROP_NEWEST);
+
+        assertTrue(batcher.getPhase() < SmartLifecycle.DEFAULT_PHASE - 2048);
+    }
+
+    private HitBatcher createBatcher(int capacity, int batchSize, Duration flushInterval,
+                                     HitBatcher.DropPolicy dropPolicy) {
+        return new HitBatcher(statsClient, hitSpool, true, capacity, batchSize, flushInterval, dropPolicy,
+                meterRegistry);
+    }
+
+    private HitDto hit(String uri) {
+        return new HitDto(null, "ewm-main-service", uri, "192.168.1.1", "2023-01-01 00:00:00");
+    }
+}
@@ -0,0 +1,166 @@
+package ru.practicum.stats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.HitDto;
+import ru.practicum.client.CircuitBreaker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class HitSpoolTest {
+
+    @TempDir
+    private Path directory;
+
+    private StatsClient statsClient;
+    private CircuitBreaker circuitBreaker;
+    private MeterRegistry meterRegistry;
+    private List<List<HitDto>> delivered;
+
+    @BeforeEach
+    void setUp() {
+        statsClient = mock(StatsClient.class);
+        circuitBreaker = new CircuitBreaker(2, Duration.ofMinutes(1));
+        when(statsClient.getCircuitBreaker()).thenReturn(circuitBreaker);
+        meterRegistry = new SimpleMeterRegistry();
+        delivered = new ArrayList<>();
+        doAnswer(invocation -> {
+            delivered.add(List.copyOf(invocation.getArgument(0)));
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        }).when(statsClient).addHits(anyList());
+    }
+
+    @Test
+    void replaysSpooledHitsInBatchesAndDeletesSegment() throws IOException {
+        HitSpool spool = createSpool(DataSize.ofKilobytes(64));
+        spool.append(List.of(hit("/events/1"), hit("/events/2"), hit("/events/3")));
+
+        spool.replay();
+
+        assertEquals(List.of(List.of(hit("/events/1"), hit("/events/2")), List.of(hit("/events/3"))), delivered);
+        assertEquals(List.of(), segments());
+        assertEquals(0.0, meterRegistry.get("stats.client.spool.size").gauge().value());
+        assertEquals(3.0, meterRegistry.get("stats.client.hits.replayed").counter().count());
+    }
+
+    @Test
+    void rotatesSegmentBeforeReplay() throws IOException {
+        HitSpool spool = createSpool(DataSize.ofKilobytes(64));
+        spool.append(List.of(hit("/events/1")));
+        doReturn(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()).when(statsClient).addHits(anyList());
+
+        spool.replay();
+        spool.append(List.of(hit("/events/2")));
+
+        List<Path> segments = segments();
+        assertEquals(2, segments.size());
+        assertTrue(Files.readString(segments.get(0)).contains("/events/1"));
+        assertTrue(Files.readString(segments.get(1)).contains("/events/2"));
+    }
+
+    @Test
+    void keepsUnsentTailWhenBatchFails() throws IOException {
+        HitSpool spool = createSpool(DataSize.ofKilobytes(64));
+        spool.append(List.of(hit("/events/1"), hit("/events/2"), hit("/events/3")));
+        doReturn(ResponseEntity.status(HttpStatus.CREATED).build())
+                .doReturn(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build())
+                .when(statsClient).addHits(anyList());
+
+        spool.replay();
+
+        List<String> kept = Files.readAllLines(segments().get(0));
+        assertEquals(1, kept.size());
+        assertTrue(kept.get(0).contains("/events/3"));
+        assertEquals(Files.size(segments().get(0)),
+                (long) meterRegistry.get("stats.client.spool.size").gauge().value());
+
+        doAnswer(invocation -> {
+            delivered.add(List.copyOf(invocation.getArgument(0)));
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        }).when(statsClient).addHits(anyList());
+        spool.replay();
+
+        assertEquals(List.of(List.of(hit("/events/3"))), delivered);
+        assertEquals(List.of(), segments());
+    }
+
+    @Test
+    void stopsReplayWhileCircuitIsOpen() throws IOException {
+        HitSpool spool = createSpool(DataSize.ofKilobytes(64));
+        spool.onFailed(List.of(hit("/events/1")));
+        spool.onFailed(List.of(hit("/events/2")));
+
+        assertFalse(spool.isServerAvailable());
+        spool.replay();
+
+        verify(statsClient, never()).addHits(anyList());
+        assertEquals(2, Files.readAllLines(segments().get(0)).size());
+    }
+
+    @Test
+    void dropsHitsBeyondMaxSize() throws IOException {
+        HitSpool spool = createSpool(DataSize.ofBytes(150));
+
+        spool.append(List.of(hit("/events/1"), hit("/events/2"), hit("/events/3")));
+
+        assertEquals(1, Files.readAllLines(segments().get(0)).size());
+        assertEquals(2.0, meterRegistry.get("stats.client.hits.dropped").tag("reason", "spool_full").counter().count());
+    }
+
+    @Test
+    void resumesSpoolLeftFromPreviousRun() throws IOException {
+        HitSpool previous = createSpool(DataSize.ofKilobytes(64));
+        previous.append(List.of(hit("/events/1")));
+        previous.stop();
+        long size = Files.size(segments().get(0));
+
+        meterRegistry = new SimpleMeterRegistry();
+        HitSpool restarted = createSpool(DataSize.ofKilobytes(64));
+        assertEquals(size, (long) meterRegistry.get("stats.client.spool.size").gauge().value());
+        restarted.append(List.of(hit("/events/2")));
+        restarted.replay();
+
+        assertEquals(List.of(List.of(hit("/events/1")), List.of(hit("/events/2"))), delivered);
+    }
+
+    @Test
+    void ignoresHitsWhenDisabled() throws IOException {
+        HitSpool spool = new HitSpool(statsClient, false, directory, DataSize.ofKilobytes(64), 2,
+                Duration.ofSeconds(5), meterRegistry);
+
+        spool.onFailed(List.of(hit("/events/1")));
+
+        assertTrue(spool.isServerAvailable());
+        assertEquals(List.of(), segments());
+    }
+
+    private HitSpool createSpool(DataSize maxSize) throws IOException {
+        return new HitSpool(statsClient, true, directory, maxSize, 2, Duration.ofSeconds(5), meterRegistry);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private HitDto hit(String uri) {
+        return new HitDto(null, "ewm-main-service", uri, "192.168.1.1", "2023-01-01 00:00:00");
+    }
+}
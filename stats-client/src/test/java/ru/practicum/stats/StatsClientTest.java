@@ -0,0 +1,92 @@
+package ru.practicum.stats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import ru.practicum.StatsDto;
+import ru.practicum.client.CircuitBreaker;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsClientTest {
+    private final LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+    private final LocalDateTime end = LocalDateTime.of(2023, 1, 2, 0, 0);
+
+    private CircuitBreaker circuitBreaker;
+    private AtomicInteger requests;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new CircuitBreaker(2, Duration.ofMinutes(1));
+        requests = new AtomicInteger();
+    }
+
+    @Test
+    void readsTypedStats() {
+        StatsClient client = client(HttpStatus.OK, "[{\"app\":\"ewm-main-service\",\"uri\":\"/events/1\",\"hits\":3}]");
+
+        assertEquals(List.of(new StatsDto("ewm-main-service", "/events/1", 3)),
+                client.getStatsList(start, end, "/events/1", true));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void skipsReadsWhileCircuitIsOpen() {
+        StatsClient client = client((uri, method) -> {
+            requests.incrementAndGet();
+            throw new ConnectException("Connection refused");
+        });
+
+        assertEquals(List.of(), client.getStatsList(start, end, "/events/1", true));
+        assertEquals(List.of(), client.getStatsList(start, end, "/events/1", true));
+        assertEquals(List.of(), client.getStatsList(start, end, "/events/1", true));
+
+        assertEquals(2, requests.get());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void countsServerErrorsAsFailures() {
+        StatsClient client = client(HttpStatus.SERVICE_UNAVAILABLE, "");
+
+        client.getStatsList(start, end, null, false);
+        client.getStatsList(start, end, null, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void doesNotCountClientErrorsAsFailures() {
+        StatsClient client = client(HttpStatus.BAD_REQUEST, "");
+
+        assertEquals(List.of(), client.getStatsList(start, end, null, false));
+        assertEquals(List.of(), client.getStatsList(start, end, null, false));
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    private StatsClient client(HttpStatus status, String body) {
+        return client((uri, method) -> {
+            requests.incrementAndGet();
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            request.setResponse(new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), status));
+            return request;
+        });
+    }
+
+    private StatsClient client(ClientHttpRequestFactory requestFactory) {
+        return new StatsClient("http://stats-server:9090", false, requestFactory, new ReactorClientHttpConnector(),
+                circuitBreaker);
+    }
+}
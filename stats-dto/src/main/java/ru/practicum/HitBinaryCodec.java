@@ -0,0 +1,87 @@
+package ru.practicum;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Length-prefixed binary encoding of hits, served as {@value #MEDIA_TYPE_VALUE}.
+ * Each record is the timestamp as big-endian epoch milliseconds of the UTC local date-time,
+ * followed by app, uri and ip, each as an unsigned 16-bit byte length and UTF-8 bytes.
+ * Records are concatenated without separators.
+ */
+public final class HitBinaryCodec {
+    public static final String MEDIA_TYPE_VALUE = "application/x-stats-hit";
+
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private HitBinaryCodec() {
+    }
+
+    public static byte[] encode(CompactHitDto hit) {
+        byte[] app = toBytes(hit.getApp());
+        byte[] uri = toBytes(hit.getUri());
+        byte[] ip = toBytes(hit.getIp());
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + 3 * Short.BYTES + app.length + uri.length + ip.length);
+        buffer.putLong(hit.getTimestamp());
+        putString(app, buffer);
+        putString(uri, buffer);
+        putString(ip, buffer);
+        return buffer.array();
+    }
+
+    public static List<CompactHitDto> decodeAll(byte[] body) {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        List<CompactHitDto> hits = new ArrayList<>();
+        try {
+            while (buffer.hasRemaining()) {
+                hits.add(read(buffer));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Malformed binary hit", e);
+        }
+        return hits;
+    }
+
+    public static CompactHitDto read(ByteBuffer buffer) {
+        long timestamp = buffer.getLong();
+        return new CompactHitDto(getString(buffer), getString(buffer), getString(buffer), timestamp);
+    }
+
+    public static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static byte[] toBytes(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Hit field exceeds " + MAX_STRING_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    private static void putString(byte[] bytes, ByteBuffer buffer) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,162 @@
+package ru.practicum;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+
+/**
+ * Parser and formatter for the fixed {@value #PATTERN} hit timestamp format.
+ * Produces the same results as {@code DateTimeFormatter.ofPattern(PATTERN)}, including clamping
+ * a day past the end of its month and reading 24:00:00 as the next midnight, without building
+ * intermediate parse state.
+ * The epoch-millisecond variants treat the local date-time as UTC, like {@link HitBinaryCodec}.
+ */
+public final class HitTimestamps {
+    public static final String PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+    private static final DateTimeFormatter FALLBACK = DateTimeFormatter.ofPattern(PATTERN);
+    private static final int LENGTH = 19;
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private HitTimestamps() {
+    }
+
+    public static LocalDateTime parse(CharSequence text) {
+        check(text);
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int hour = digits(text, 11, 2);
+        if (hour == 24) {
+            return LocalDateTime.of(year, month, day(text, year, month), 0, 0).plusDays(1);
+        }
+        return LocalDateTime.of(year, month, day(text, year, month), hour, digits(text, 14, 2), digits(text, 17, 2));
+    }
+
+    public static long parseEpochMillis(CharSequence text) {
+        check(text);
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = day(text, year, month);
+        long secondOfDay = digits(text, 11, 2) * 3600L + digits(text, 14, 2) * 60L + digits(text, 17, 2);
+        return epochDay(year, month, day) * MILLIS_PER_DAY + secondOfDay * 1000L;
+    }
+
+    public static String format(LocalDateTime timestamp) {
+        int year = timestamp.getYear();
+        if (year < 1 || year > 9999) {
+            return FALLBACK.format(timestamp);
+        }
+
+        byte[] bytes = new byte[LENGTH];
+        write(bytes, year, timestamp.getMonthValue(), timestamp.getDayOfMonth(),
+                timestamp.getHour(), timestamp.getMinute(), timestamp.getSecond());
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    public static String format(long epochMillis) {
+        long epochDay = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        int secondOfDay = (int) (Math.floorMod(epochMillis, MILLIS_PER_DAY) / 1000L);
+
+        long z = epochDay + DAYS_0000_TO_1970 - 60;
+        long era = Math.floorDiv(z, 146_097L);
+        long dayOfEra = z - era * 146_097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 1 || year > 9999) {
+            return format(HitBinaryCodec.fromEpochMillis(epochMillis));
+        }
+
+        byte[] bytes = new byte[LENGTH];
+        write(bytes, (int) year, month, day, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void check(CharSequence text) {
+        Objects.requireNonNull(text, "text");
+        if (text.length() != LENGTH) {
+            throw new DateTimeParseException("Text '" + text + "' could not be parsed, expected " + PATTERN,
+                    text, Math.min(text.length(), LENGTH));
+        }
+        separator(text, 4, '-');
+        separator(text, 7, '-');
+        separator(text, 10, ' ');
+        separator(text, 13, ':');
+        separator(text, 16, ':');
+        range(text, 0, digits(text, 0, 4), 1, 9999);
+        range(text, 5, digits(text, 5, 2), 1, 12);
+        range(text, 8, digits(text, 8, 2), 1, 31);
+        range(text, 14, digits(text, 14, 2), 0, 59);
+        range(text, 17, digits(text, 17, 2), 0, 59);
+        boolean endOfDay = digits(text, 14, 2) == 0 && digits(text, 17, 2) == 0;
+        range(text, 11, digits(text, 11, 2), 0, endOfDay ? 24 : 23);
+    }
+
+    private static int day(CharSequence text, int year, int month) {
+        return Math.min(digits(text, 8, 2), Month.of(month).length(Year.isLeap(year)));
+    }
+
+    private static void separator(CharSequence text, int index, char expected) {
+        if (text.charAt(index) != expected) {
+            throw new DateTimeParseException("Text '" + text + "' could not be parsed at index " + index,
+                    text, index);
+        }
+    }
+
+    private static void range(CharSequence text, int index, int value, int min, int max) {
+        if (value < min || value > max) {
+            throw new DateTimeParseException("Text '" + text + "' could not be parsed: value " + value
+                    + " out of range " + min + "-" + max, text, index);
+        }
+    }
+
+    private static int digits(CharSequence text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DateTimeParseException("Text '" + text + "' could not be parsed at index " + i, text, i);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static long epochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12 + day - 1;
+        if (month > 2) {
+            total -= Year.isLeap(year) ? 1 : 2;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    private static void write(byte[] bytes, int year, int month, int day, int hour, int minute, int second) {
+        put(bytes, 0, year, 4);
+        bytes[4] = '-';
+        put(bytes, 5, month, 2);
+        bytes[7] = '-';
+        put(bytes, 8, day, 2);
+        bytes[10] = ' ';
+        put(bytes, 11, hour, 2);
+        bytes[13] = ':';
+        put(bytes, 14, minute, 2);
+        bytes[16] = ':';
+        put(bytes, 17, second, 2);
+    }
+
+    private static void put(byte[] bytes, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
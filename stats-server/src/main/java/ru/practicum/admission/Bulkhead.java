@@ -0,0 +1,81 @@
+package ru.practicum.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import ru.practicum.config.AdmissionProperties;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.exception.TooManyRequestsException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Bulkhead {
+    private final String name;
+    private final AdmissionProperties.Limits limits;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter queueFullCounter;
+    private final Counter timeoutCounter;
+
+    public Bulkhead(String name, AdmissionProperties.Limits limits, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.limits = limits;
+        this.permits = new Semaphore(limits.getPermits());
+
+        Gauge.builder("stats.admission.active", this, Bulkhead::active)
+                .description("Requests holding an admission permit")
+                .tag("class", name)
+                .register(meterRegistry);
+        Gauge.builder("stats.admission.waiting", waiting, AtomicInteger::get)
+                .description("Requests waiting for an admission permit")
+                .tag("class", name)
+                .register(meterRegistry);
+        this.queueFullCounter = Counter.builder("stats.admission.rejected")
+                .tag("class", name)
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("stats.admission.rejected")
+                .tag("class", name)
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+    }
+
+    public void acquire() {
+        if (permits.tryAcquire()) {
+            return;
+        }
+
+        if (waiting.incrementAndGet() > limits.getQueue()) {
+            waiting.decrementAndGet();
+            queueFullCounter.increment();
+            throw new TooManyRequestsException("Too many concurrent " + name + " requests");
+        }
+        try {
+            if (!permits.tryAcquire(limits.getMaxWait().toNanos(), TimeUnit.NANOSECONDS)) {
+                timeoutCounter.increment();
+                throw new ServiceUnavailableException("No " + name + " capacity available within "
+                        + limits.getMaxWait().toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            timeoutCounter.increment();
+            throw new ServiceUnavailableException("Interrupted while waiting for " + name + " capacity");
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int active() {
+        return limits.getPermits() - permits.availablePermits();
+    }
+
+    public int waiting() {
+        return waiting.get();
+    }
+}
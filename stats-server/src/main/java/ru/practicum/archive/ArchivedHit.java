@@ -0,0 +1,7 @@
+package ru.practicum.archive;
+
+public record ArchivedHit(long id, long timestampMicros, String app, String uri, byte[] ip, int weight) {
+    public ArchivedHit(long id, long timestampMicros, String app, String uri, byte[] ip) {
+        this(id, timestampMicros, app, uri, ip, 1);
+    }
+}
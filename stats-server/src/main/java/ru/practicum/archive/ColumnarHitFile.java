@@ -0,0 +1,263 @@
+package ru.practicum.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Deflate-compressed file of hits stored column by column.
+ * Timestamps (UTC epoch microseconds) and ids are delta-encoded as zigzag varints, while apps, uris and ip addresses
+ * are stored as indexes into per-file dictionaries written ahead of the columns, followed by a column of sampling
+ * weights. Names live in the file itself so archives stay readable after the database dictionaries are rebuilt.
+ * {@link Writer} spills each column to a temporary file while hits are appended, so only the dictionaries are held
+ * in memory; hits appended in timestamp order give the smallest files.
+ */
+public final class ColumnarHitFile {
+    private static final int MAGIC = 0x48495443;
+    private static final int VERSION = 3;
+
+    private static final Comparator<ArchivedHit> BY_TIMESTAMP = Comparator.comparingLong(ArchivedHit::timestampMicros)
+            .thenComparingLong(ArchivedHit::id);
+
+    private ColumnarHitFile() {
+    }
+
+    public static void write(Path path, List<ArchivedHit> hits) throws IOException {
+        List<ArchivedHit> sorted = new ArrayList<>(hits);
+        sorted.sort(BY_TIMESTAMP);
+
+        try (Writer writer = new Writer(path)) {
+            for (ArchivedHit hit : sorted) {
+                writer.append(hit);
+            }
+        }
+    }
+
+    public static List<ArchivedHit> read(Path path) throws IOException {
+        List<ArchivedHit> hits = new ArrayList<>();
+        forEach(path, hits::add);
+        return hits;
+    }
+
+    public static void forEach(Path path, Consumer<ArchivedHit> consumer) throws IOException {
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new InflaterInputStream(new BufferedInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a columnar hit file: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported columnar hit file version " + version + ": " + path);
+            }
+
+            int count = Math.toIntExact(readVarLong(in));
+            long[] timestamps = new long[count];
+            long[] ids = new long[count];
+
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                previous += unzigzag(readVarLong(in));
+                timestamps[i] = previous;
+            }
+            previous = 0;
+            for (int i = 0; i < count; i++) {
+                previous += unzigzag(readVarLong(in));
+                ids[i] = previous;
+            }
+            String[] apps = readNames(in, count);
+            String[] uris = readNames(in, count);
+
+            byte[][] addresses = new byte[Math.toIntExact(readVarLong(in))][];
+            for (int i = 0; i < addresses.length; i++) {
+                addresses[i] = new byte[in.readUnsignedByte()];
+                in.readFully(addresses[i]);
+            }
+
+            byte[][] ips = new byte[count][];
+            for (int i = 0; i < count; i++) {
+                ips[i] = addresses[Math.toIntExact(readVarLong(in))];
+            }
+
+            for (int i = 0; i < count; i++) {
+                consumer.accept(new ArchivedHit(ids[i], timestamps[i], apps[i], uris[i], ips[i],
+                        Math.toIntExact(readVarLong(in))));
+            }
+        }
+    }
+
+    public static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    public static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static String[] readNames(DataInputStream in, int count) throws IOException {
+        String[] dictionary = new String[Math.toIntExact(readVarLong(in))];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = in.readUTF();
+        }
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = dictionary[Math.toIntExact(readVarLong(in))];
+        }
+        return names;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public static final class Writer implements Closeable {
+        private final Path path;
+        private final Column timestamps;
+        private final Column ids;
+        private final Column appIndexes;
+        private final Column uriIndexes;
+        private final Column ipIndexes;
+        private final Column weights;
+        private final Map<String, Integer> apps = new LinkedHashMap<>();
+        private final Map<String, Integer> uris = new LinkedHashMap<>();
+        private final Map<ByteBuffer, Integer> addresses = new LinkedHashMap<>();
+        private long count;
+        private long previousTimestamp;
+        private long previousId;
+
+        public Writer(Path path) throws IOException {
+            this.path = path;
+            List<Column> columns = new ArrayList<>();
+            try {
+                for (int i = 0; i < 6; i++) {
+                    columns.add(new Column(path));
+                }
+            } catch (IOException e) {
+                for (Column column : columns) {
+                    column.delete();
+                }
+                throw e;
+            }
+            this.timestamps = columns.get(0);
+            this.ids = columns.get(1);
+            this.appIndexes = columns.get(2);
+            this.uriIndexes = columns.get(3);
+            this.ipIndexes = columns.get(4);
+            this.weights = columns.get(5);
+        }
+
+        public void append(ArchivedHit hit) throws IOException {
+            writeVarLong(timestamps.out, zigzag(hit.timestampMicros() - previousTimestamp));
+            previousTimestamp = hit.timestampMicros();
+            writeVarLong(ids.out, zigzag(hit.id() - previousId));
+            previousId = hit.id();
+            writeVarLong(appIndexes.out, apps.computeIfAbsent(hit.app(), key -> apps.size()));
+            writeVarLong(uriIndexes.out, uris.computeIfAbsent(hit.uri(), key -> uris.size()));
+            writeVarLong(ipIndexes.out, addresses.computeIfAbsent(ByteBuffer.wrap(hit.ip()), key -> addresses.size()));
+            writeVarLong(weights.out, hit.weight());
+            count++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                for (Column column : List.of(timestamps, ids, appIndexes, uriIndexes, ipIndexes, weights)) {
+                    column.out.close();
+                }
+
+                try (OutputStream file = Files.newOutputStream(path);
+                     DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(new BufferedOutputStream(file)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    writeVarLong(out, count);
+                    timestamps.copyTo(out);
+                    ids.copyTo(out);
+                    writeDictionary(out, apps.keySet());
+                    appIndexes.copyTo(out);
+                    writeDictionary(out, uris.keySet());
+                    uriIndexes.copyTo(out);
+                    writeVarLong(out, addresses.size());
+                    for (ByteBuffer address : addresses.keySet()) {
+                        out.writeByte(address.remaining());
+                        out.write(address.array(), address.arrayOffset() + address.position(), address.remaining());
+                    }
+                    ipIndexes.copyTo(out);
+                    weights.copyTo(out);
+                }
+            } finally {
+                for (Column column : List.of(timestamps, ids, appIndexes, uriIndexes, ipIndexes, weights)) {
+                    column.delete();
+                }
+            }
+        }
+
+        private static void writeDictionary(DataOutputStream out, Collection<String> names) throws IOException {
+            writeVarLong(out, names.size());
+            for (String name : names) {
+                out.writeUTF(name);
+            }
+        }
+    }
+
+    private static final class Column {
+        private final Path file;
+        private final DataOutputStream out;
+
+        private Column(Path path) throws IOException {
+            this.file = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".column");
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        }
+
+        private void copyTo(OutputStream target) throws IOException {
+            Files.copy(file, target);
+        }
+
+        private void delete() throws IOException {
+            out.close();
+            Files.deleteIfExists(file);
+        }
+    }
+}
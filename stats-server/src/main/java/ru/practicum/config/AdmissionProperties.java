@@ -0,0 +1,39 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.admission")
+public class AdmissionProperties {
+    private boolean enabled = false;
+
+    private Limits ingest = new Limits(4, 32, Duration.ofMillis(50));
+
+    private Limits query = new Limits(32, 64, Duration.ofSeconds(2));
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    @Getter
+    @Setter
+    public static class Limits {
+        private int permits;
+
+        private int queue;
+
+        private Duration maxWait;
+
+        public Limits() {
+        }
+
+        public Limits(int permits, int queue, Duration maxWait) {
+            this.permits = permits;
+            this.queue = queue;
+            this.maxWait = maxWait;
+        }
+    }
+}
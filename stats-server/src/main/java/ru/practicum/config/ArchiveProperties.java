@@ -0,0 +1,21 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.archive")
+public class ArchiveProperties {
+    private boolean enabled = false;
+
+    private Path directory = Path.of("hit-archive");
+
+    private Duration olderThan = Duration.ofDays(30);
+
+    private Duration interval = Duration.ofHours(1);
+}
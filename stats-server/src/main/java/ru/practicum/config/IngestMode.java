@@ -0,0 +1,7 @@
+package ru.practicum.config;
+
+public enum IngestMode {
+    SYNC,
+    WRITE_BEHIND,
+    LOG
+}
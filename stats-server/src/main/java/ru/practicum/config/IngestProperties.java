@@ -0,0 +1,40 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.ingest")
+public class IngestProperties {
+    private IngestMode mode = IngestMode.SYNC;
+
+    private int queueCapacity = 10_000;
+
+    private int flushSize = 500;
+
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    private int maxBatchSize = 10_000;
+
+    private final Log log = new Log();
+
+    @Getter
+    @Setter
+    public static class Log {
+        private Path directory = Path.of("hit-log");
+
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        private boolean fsync = false;
+
+        private int replayBatchSize = 5_000;
+
+        private Duration replayInterval = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.parallel")
+public class ParallelStatsProperties {
+    private boolean enabled = false;
+
+    private int threads = 4;
+
+    private int queueCapacity = 256;
+
+    private Duration chunk = Duration.ofDays(7);
+
+    private Duration minRange = Duration.ofDays(14);
+}
@@ -0,0 +1,23 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import ru.practicum.model.PartitionInterval;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.partition")
+public class PartitionProperties {
+    private boolean enabled = false;
+
+    private PartitionInterval interval = PartitionInterval.DAY;
+
+    private int premake = 7;
+
+    private Duration retention;
+
+    private Duration maintenanceInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,36 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.sampling")
+public class SamplingProperties {
+    private boolean enabled = false;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Rule {
+        private String app;
+
+        private String uriPattern;
+
+        private int oneIn = 1;
+
+        public Rule() {
+        }
+
+        public Rule(String app, String uriPattern, int oneIn) {
+            this.app = app;
+            this.uriPattern = uriPattern;
+            this.oneIn = oneIn;
+        }
+    }
+}
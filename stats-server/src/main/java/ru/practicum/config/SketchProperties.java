@@ -0,0 +1,20 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.sketch")
+public class SketchProperties {
+    private boolean enabled = false;
+
+    private int precision = 12;
+
+    private Duration flushInterval = Duration.ofSeconds(10);
+
+    private Duration compactionInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,22 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.cache")
+public class StatsCacheProperties {
+    private boolean enabled = false;
+
+    private long maxWeight = 1_000_000;
+
+    private int maxBuckets = 400;
+
+    private Duration closedAfter = Duration.ofMinutes(1);
+
+    private Duration ttl = Duration.ofDays(1);
+}
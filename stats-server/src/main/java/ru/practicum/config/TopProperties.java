@@ -0,0 +1,20 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.top")
+public class TopProperties {
+    private boolean enabled = false;
+
+    private int capacity = 1000;
+
+    private int maxK = 100;
+
+    private Duration retention = Duration.ofDays(7);
+}
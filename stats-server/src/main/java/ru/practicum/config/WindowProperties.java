@@ -0,0 +1,16 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stats.window")
+public class WindowProperties {
+    private boolean enabled = false;
+
+    private Duration span = Duration.ofHours(24);
+}
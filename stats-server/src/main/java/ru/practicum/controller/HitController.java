@@ -1,23 +1,36 @@
 package ru.practicum.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriUtils;
+import ru.practicum.CompactHitDto;
+import ru.practicum.HitBinaryCodec;
 import ru.practicum.HitDto;
+import ru.practicum.HitStatusDto;
 import ru.practicum.StatsDto;
 import ru.practicum.exception.ValidationException;
+import ru.practicum.service.ApproximateStats;
 import ru.practicum.service.HitService;
 import ru.practicum.utils.UtilPatterns;
 
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Stream;
 
 
@@ -25,7 +38,11 @@ import java.util.stream.Stream;
 @RequiredArgsConstructor
 @RestController
 public class HitController {
+    public static final String RELATIVE_ERROR_HEADER = "X-Stats-Relative-Error";
+    public static final String SAMPLED_HEADER = "X-Stats-Sampled";
+
     private final HitService hitService;
+    private final ObjectMapper objectMapper;
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping("/hit")
@@ -34,23 +51,131 @@ public class HitController {
         return hitService.createHit(hitDto);
     }
 
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping(value = "/hit", consumes = HitBinaryCodec.MEDIA_TYPE_VALUE)
+    public HitDto createBinaryHit(@RequestBody byte[] body) {
+        List<CompactHitDto> hits = decodeHits(body);
+        if (hits.size() != 1) {
+            throw new ValidationException("Expected exactly one binary hit, got " + hits.size());
+        }
+
+        return hitService.createHit(hits.get(0));
+    }
+
+    @PostMapping(value = "/hits", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<HitStatusDto> createHits(@RequestBody List<HitDto> hitDtos) {
+        log.info("HitDto batch received: {} hits", hitDtos.size());
+        return hitService.createHits(hitDtos);
+    }
+
+    @PostMapping(value = "/hits", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public List<HitStatusDto> createHitsFromNdjson(@RequestBody String body) {
+        List<HitDto> hitDtos = body.lines()
+                .filter(line -> !line.isBlank())
+                .map(this::readHit)
+                .toList();
+
+        log.info("HitDto NDJSON batch received: {} hits", hitDtos.size());
+        return hitService.createHits(hitDtos);
+    }
+
     @GetMapping("/stats")
-    public List<StatsDto> getStats(@RequestParam(required = false) @DateTimeFormat(pattern = UtilPatterns.DATE_PATTERN) LocalDateTime start,
-                                   @RequestParam(required = false) @DateTimeFormat(pattern = UtilPatterns.DATE_PATTERN) LocalDateTime end,
-                                   @RequestParam(required = false) String uris,
-                                   @RequestParam(defaultValue = "false") Boolean unique) {
-        log.info("Fetching stats from {} to {}, uris: {}, unique: {}", start, end, uris, unique);
+    public ResponseEntity<List<StatsDto>> getStats(@RequestParam(required = false) @DateTimeFormat(pattern = UtilPatterns.DATE_PATTERN) LocalDateTime start,
+                                                   @RequestParam(required = false) @DateTimeFormat(pattern = UtilPatterns.DATE_PATTERN) LocalDateTime end,
+                                                   @RequestParam(required = false) String uris,
+                                                   @RequestParam(defaultValue = "false") Boolean unique,
+                                                   @RequestParam(defaultValue = "false") Boolean approximate) {
+        log.info("Fetching stats from {} to {}, uris: {}, unique: {}, approximate: {}", start, end, uris, unique, approximate);
 
         if (start == null || end == null) {
             throw new ValidationException("Start or end dates are null");
         }
 
-        List<String> urisList = (uris != null) ? Stream.of(uris.split(","))
+        List<String> urisList = decodeUris(uris);
+
+        log.info("Decoded URIs: {}", urisList);
+        if (unique && approximate) {
+            ApproximateStats stats = hitService.getApproximateUniqueStats(start, end, urisList);
+            return sampled(ResponseEntity.ok(), urisList)
+                    .header(RELATIVE_ERROR_HEADER, String.format(Locale.ROOT, "%.4f", stats.relativeError()))
+                    .body(stats.stats());
+        }
+
+        ApproximateStats stats = hitService.getEstimatedStats(start, end, urisList, unique);
+        ResponseEntity.BodyBuilder response = sampled(ResponseEntity.ok(), urisList);
+        if (stats.relativeError() > 0) {
+            response.header(RELATIVE_ERROR_HEADER, String.format(Locale.ROOT, "%.4f", stats.relativeError()));
+        }
+        return response.body(stats.stats());
+    }
+
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamStats(@RequestParam(required = false) @DateTimeFormat(pattern = UtilPatterns.DATE_PATTERN) LocalDateTime start,
+                                                             @RequestParam(required = false) @DateTimeFormat(pattern = UtilPatterns.DATE_PATTERN) LocalDateTime end,
+                                                             @RequestParam(required = false) String uris,
+                                                             @RequestParam(defaultValue = "false") Boolean unique) {
+        log.info("Streaming stats from {} to {}, uris: {}, unique: {}", start, end, uris, unique);
+
+        if (start == null || end == null) {
+            throw new ValidationException("Start or end dates are null");
+        }
+        if (start.isAfter(end)) {
+            throw new ValidationException("Start date should be before end date");
+        }
+
+        List<String> urisList = decodeUris(uris);
+        ObjectWriter writer = objectMapper.writerFor(StatsDto.class);
+        StreamingResponseBody body = outputStream -> hitService.streamStats(start, end, urisList, unique, stats -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(stats));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return sampled(ResponseEntity.ok(), urisList)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/stats/top")
+    public ResponseEntity<List<StatsDto>> getTopStats(@RequestParam(required = false) @DateTimeFormat(pattern = UtilPatterns.DATE_PATTERN) LocalDateTime start,
+                                      @RequestParam(required = false) @DateTimeFormat(pattern = UtilPatterns.DATE_PATTERN) LocalDateTime end,
+                                      @RequestParam(defaultValue = "10") Integer k) {
+        log.info("Fetching top {} uris from {} to {}", k, start, end);
+
+        if (start == null || end == null) {
+            throw new ValidationException("Start or end dates are null");
+        }
+
+        return sampled(ResponseEntity.ok(), Collections.emptyList()).body(hitService.getTopStats(start, end, k));
+    }
+
+    private ResponseEntity.BodyBuilder sampled(ResponseEntity.BodyBuilder response, List<String> uris) {
+        return hitService.isSampled(uris) ? response.header(SAMPLED_HEADER, "true") : response;
+    }
+
+    private List<CompactHitDto> decodeHits(byte[] body) {
+        try {
+            return HitBinaryCodec.decodeAll(body);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Malformed binary hit");
+        }
+    }
+
+    private List<String> decodeUris(String uris) {
+        return (uris != null) ? Stream.of(uris.split(","))
                 .map(uri -> UriUtils.decode(uri, StandardCharsets.UTF_8))
                 .toList() : Collections.emptyList();
+    }
 
-        log.info("Decoded URIs: {}", urisList);
-        return hitService.getStats(start, end, urisList, unique);
+    private HitDto readHit(String line) {
+        try {
+            return objectMapper.readValue(line, HitDto.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Malformed hit line received: {}", e.getOriginalMessage());
+            return null;
+        }
     }
 }
-
@@ -36,6 +36,24 @@ public class ErrorHandler {
         );
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ErrorResponse tooManyRequestsException(final TooManyRequestsException e) {
+        return new ErrorResponse(
+                "Too many requests",
+                e.getMessage()
+        );
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse serviceUnavailableException(final ServiceUnavailableException e) {
+        return new ErrorResponse(
+                "Service unavailable",
+                e.getMessage()
+        );
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse commonException(final ConditionsNotMetException e) {
@@ -0,0 +1,22 @@
+package ru.practicum.mapper;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.practicum.model.Hit;
+
+@RequiredArgsConstructor
+public class HitEntityListener {
+    private final ObjectProvider<HitMapper> hitMapper;
+
+    @PrePersist
+    public void encode(Hit hit) {
+        hitMapper.getObject().encode(hit);
+    }
+
+    @PostLoad
+    public void decode(Hit hit) {
+        hitMapper.getObject().decode(hit);
+    }
+}
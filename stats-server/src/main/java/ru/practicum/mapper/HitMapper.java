@@ -1,16 +1,30 @@
 package ru.practicum.mapper;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import ru.practicum.CompactHitDto;
+import ru.practicum.HitBinaryCodec;
 import ru.practicum.HitDto;
+import ru.practicum.HitTimestamps;
+import ru.practicum.StatsDto;
+import ru.practicum.exception.ValidationException;
 import ru.practicum.model.Hit;
-import ru.practicum.utils.UtilPatterns;
+import ru.practicum.projection.StatsProjection;
+import ru.practicum.repository.HitDictionaryRepository;
+import ru.practicum.utils.IpAddresses;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
+@RequiredArgsConstructor
 public class HitMapper {
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(UtilPatterns.DATE_PATTERN);
+    private final HitDictionaryRepository hitDictionaryRepository;
+    private final Map<String, Integer> appIds = new ConcurrentHashMap<>();
+    private final Map<String, Integer> uriIds = new ConcurrentHashMap<>();
+    private final Map<Integer, String> appNames = new ConcurrentHashMap<>();
+    private final Map<Integer, String> uriNames = new ConcurrentHashMap<>();
 
     public HitDto fromHitToDto(Hit hit) {
         return new HitDto(
@@ -18,20 +32,134 @@ public class HitMapper {
                 hit.getApp(),
                 hit.getUri(),
                 hit.getIp(),
-                hit.getTimestamp().format(formatter)
+                HitTimestamps.format(hit.getTimestamp())
         );
     }
 
     public Hit fromDtoToHit(HitDto hitDto) {
-        LocalDateTime hitTimestamp = LocalDateTime.parse(hitDto.getTimestamp(), formatter);
+        LocalDateTime hitTimestamp = HitTimestamps.parse(hitDto.getTimestamp());
 
-        return new Hit(
+        Hit hit = new Hit(
                 hitDto.getId(),
                 hitDto.getUri(),
                 hitDto.getApp(),
                 hitDto.getIp(),
                 hitTimestamp
         );
+        encode(hit);
+        return hit;
     }
 
+    public CompactHitDto fromDtoToCompactDto(HitDto hitDto) {
+        return new CompactHitDto(
+                hitDto.getApp(),
+                hitDto.getUri(),
+                normalizeIp(hitDto.getIp()),
+                HitTimestamps.parseEpochMillis(hitDto.getTimestamp())
+        );
+    }
+
+    public HitDto fromCompactDtoToDto(CompactHitDto compactHitDto) {
+        return new HitDto(
+                null,
+                compactHitDto.getApp(),
+                compactHitDto.getUri(),
+                compactHitDto.getIp(),
+                HitTimestamps.format(compactHitDto.getTimestamp())
+        );
+    }
+
+    public Hit fromCompactDtoToHit(CompactHitDto compactHitDto) {
+        Hit hit = new Hit(
+                null,
+                compactHitDto.getUri(),
+                compactHitDto.getApp(),
+                compactHitDto.getIp(),
+                HitBinaryCodec.fromEpochMillis(compactHitDto.getTimestamp())
+        );
+        encode(hit);
+        return hit;
+    }
+
+    public StatsDto fromProjectionToStatsDto(StatsProjection stats) {
+        return new StatsDto(stats.getApp(), stats.getUri(), Math.toIntExact(stats.getHits()));
+    }
+
+    public void encode(Hit hit) {
+        if (hit.getAppId() == null && hit.getApp() != null) {
+            hit.setAppId(appId(hit.getApp()));
+        }
+        if (hit.getUriId() == null && hit.getUri() != null) {
+            hit.setUriId(uriId(hit.getUri()));
+        }
+        if (hit.getIpAddress() == null && hit.getIp() != null) {
+            hit.setIpAddress(ipAddress(hit.getIp()));
+            hit.setIp(IpAddresses.toString(hit.getIpAddress()));
+        }
+    }
+
+    public void decode(Hit hit) {
+        if (hit.getApp() == null && hit.getAppId() != null) {
+            hit.setApp(appName(hit.getAppId()));
+        }
+        if (hit.getUri() == null && hit.getUriId() != null) {
+            hit.setUri(uriName(hit.getUriId()));
+        }
+        if (hit.getIp() == null && hit.getIpAddress() != null) {
+            hit.setIp(IpAddresses.toString(hit.getIpAddress()));
+        }
+    }
+
+    public String normalizeIp(String ip) {
+        return IpAddresses.toString(ipAddress(ip));
+    }
+
+    public int appId(String app) {
+        return cachedId(HitDictionaryRepository.APPS, app, appIds, appNames);
+    }
+
+    public int uriId(String uri) {
+        return cachedId(HitDictionaryRepository.URIS, uri, uriIds, uriNames);
+    }
+
+    public String appName(int appId) {
+        return cachedName(HitDictionaryRepository.APPS, appId, appNames);
+    }
+
+    public String uriName(int uriId) {
+        return cachedName(HitDictionaryRepository.URIS, uriId, uriNames);
+    }
+
+    private byte[] ipAddress(String ip) {
+        try {
+            return IpAddresses.toBytes(ip);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("ip: invalid address");
+        }
+    }
+
+    private int cachedId(String dictionary, String name, Map<String, Integer> ids, Map<Integer, String> names) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        int created = hitDictionaryRepository.getOrCreateId(dictionary, name);
+        names.putIfAbsent(created, name);
+        ids.putIfAbsent(name, created);
+        return created;
+    }
+
+    private String cachedName(String dictionary, int id, Map<Integer, String> names) {
+        String name = names.get(id);
+        if (name != null) {
+            return name;
+        }
+
+        String found = hitDictionaryRepository.findName(dictionary, id);
+        if (found != null) {
+            names.putIfAbsent(id, found);
+        }
+        return found;
+    }
 }
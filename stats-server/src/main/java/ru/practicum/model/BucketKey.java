@@ -0,0 +1,18 @@
+package ru.practicum.model;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+public record BucketKey(BucketGranularity granularity, LocalDateTime bucketStart, String app, String uri)
+        implements Comparable<BucketKey> {
+
+    private static final Comparator<BucketKey> ORDER = Comparator.comparing(BucketKey::granularity)
+            .thenComparing(BucketKey::bucketStart)
+            .thenComparing(BucketKey::app)
+            .thenComparing(BucketKey::uri);
+
+    @Override
+    public int compareTo(BucketKey other) {
+        return ORDER.compare(this, other);
+    }
+}
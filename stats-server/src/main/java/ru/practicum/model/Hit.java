@@ -3,6 +3,7 @@ package ru.practicum.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.format.annotation.DateTimeFormat;
+import ru.practicum.mapper.HitEntityListener;
 import ru.practicum.utils.UtilPatterns;
 
 import java.time.LocalDateTime;
@@ -12,26 +13,47 @@ import java.time.LocalDateTime;
 @Setter
 @ToString
 @NoArgsConstructor
-@AllArgsConstructor
 @Table(name = "hits")
+@EntityListeners(HitEntityListener.class)
 public class Hit {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
+    @Transient
     private String uri;
 
-    @Column(nullable = false)
+    @Transient
     private String app;
 
-    @Column(nullable = false)
+    @Transient
     private String ip;
 
+    @Column(name = "uri_id", nullable = false)
+    private Integer uriId;
+
+    @Column(name = "app_id", nullable = false)
+    private Integer appId;
+
+    @ToString.Exclude
+    @Column(name = "ip", nullable = false)
+    private byte[] ipAddress;
+
     @Column(nullable = false)
     @DateTimeFormat(pattern = UtilPatterns.DATE_PATTERN)
     private LocalDateTime timestamp;
 
+    @Column(nullable = false)
+    private int weight = 1;
+
+    public Hit(Long id, String uri, String app, String ip, LocalDateTime timestamp) {
+        this.id = id;
+        this.uri = uri;
+        this.app = app;
+        this.ip = ip;
+        this.timestamp = timestamp;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
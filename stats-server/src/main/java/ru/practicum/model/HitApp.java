@@ -0,0 +1,24 @@
+package ru.practicum.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "hit_apps")
+public class HitApp {
+    @Id
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+}
@@ -0,0 +1,30 @@
+package ru.practicum.model;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+public enum PartitionInterval {
+    DAY(DateTimeFormatter.ofPattern("yyyyMMdd")),
+    MONTH(DateTimeFormatter.ofPattern("yyyyMM"));
+
+    private final DateTimeFormatter suffixFormatter;
+
+    PartitionInterval(DateTimeFormatter suffixFormatter) {
+        this.suffixFormatter = suffixFormatter;
+    }
+
+    public LocalDateTime floor(LocalDateTime timestamp) {
+        LocalDateTime day = timestamp.truncatedTo(ChronoUnit.DAYS);
+        return this == DAY ? day : day.with(TemporalAdjusters.firstDayOfMonth());
+    }
+
+    public LocalDateTime next(LocalDateTime partitionStart) {
+        return this == DAY ? partitionStart.plusDays(1) : partitionStart.plusMonths(1);
+    }
+
+    public String partitionName(LocalDateTime partitionStart) {
+        return "hits_p" + partitionStart.format(suffixFormatter);
+    }
+}
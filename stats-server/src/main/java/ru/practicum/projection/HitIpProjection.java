@@ -0,0 +1,9 @@
+package ru.practicum.projection;
+
+public interface HitIpProjection {
+    String getApp();
+
+    String getUri();
+
+    byte[] getIp();
+}
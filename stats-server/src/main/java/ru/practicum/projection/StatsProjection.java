@@ -7,4 +7,6 @@ public interface StatsProjection {
     String getUri();
 
     Long getHits();
+
+    Long getMatched();
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import ru.practicum.archive.ArchivedHit;
+import ru.practicum.archive.ColumnarHitFile;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class HitArchiveRepository {
+    private static final int FETCH_SIZE = Integer.parseInt(HitRepository.STREAM_FETCH_SIZE);
+
+    private static final String SELECT_HITS = "SELECT h.id, a.name, u.name, h.ip, h.timestamp, h.weight FROM %s h " +
+            "JOIN hit_apps a ON a.id = h.app_id JOIN hit_uris u ON u.id = h.uri_id ";
+
+    private static final String ORDER_BY_TIMESTAMP = "ORDER BY h.timestamp, h.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LocalDateTime findOldestTimestamp() {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM hits", Timestamp.class);
+        return oldest != null ? oldest.toLocalDateTime() : null;
+    }
+
+    public void streamHits(LocalDateTime from, LocalDateTime to, Consumer<ArchivedHit> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_HITS.formatted("hits") +
+                    "WHERE h.timestamp >= ? AND h.timestamp < ? " + ORDER_BY_TIMESTAMP);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(to));
+            return statement;
+        }, toHits(consumer));
+    }
+
+    public void streamPartition(String name, Consumer<ArchivedHit> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_HITS.formatted(name) + ORDER_BY_TIMESTAMP);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, toHits(consumer));
+    }
+
+    public int deleteHits(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.update("DELETE FROM hits WHERE timestamp >= ? AND timestamp < ?",
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    private static RowCallbackHandler toHits(Consumer<ArchivedHit> consumer) {
+        return rs -> consumer.accept(toHit(rs));
+    }
+
+    private static ArchivedHit toHit(ResultSet rs) throws SQLException {
+        return new ArchivedHit(rs.getLong(1), ColumnarHitFile.toMicros(rs.getTimestamp(5).toLocalDateTime()),
+                rs.getString(2), rs.getString(3), rs.getBytes(4), rs.getInt(6));
+    }
+}
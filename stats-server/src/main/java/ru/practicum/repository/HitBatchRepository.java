@@ -0,0 +1,47 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.Hit;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class HitBatchRepository {
+    private static final int ROWS_PER_STATEMENT = 1000;
+    private static final String INSERT_HITS = "INSERT INTO hits (app_id, uri_id, ip, timestamp, weight) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?)";
+    private static final String FULL_INSERT = insertStatement(ROWS_PER_STATEMENT);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void saveAll(List<Hit> hits) {
+        for (int from = 0; from < hits.size(); from += ROWS_PER_STATEMENT) {
+            List<Hit> chunk = hits.subList(from, Math.min(from + ROWS_PER_STATEMENT, hits.size()));
+            String sql = chunk.size() == ROWS_PER_STATEMENT ? FULL_INSERT : insertStatement(chunk.size());
+            jdbcTemplate.update(sql, ps -> {
+                int index = 1;
+                for (Hit hit : chunk) {
+                    ps.setInt(index++, hit.getAppId());
+                    ps.setInt(index++, hit.getUriId());
+                    ps.setBytes(index++, hit.getIpAddress());
+                    ps.setTimestamp(index++, Timestamp.valueOf(hit.getTimestamp()));
+                    ps.setInt(index++, hit.getWeight());
+                }
+            });
+        }
+    }
+
+    private static String insertStatement(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_HITS.length() + rows * (ROW_PLACEHOLDER.length() + 2))
+                .append(INSERT_HITS)
+                .append(ROW_PLACEHOLDER);
+        for (int i = 1; i < rows; i++) {
+            sql.append(", ").append(ROW_PLACEHOLDER);
+        }
+        return sql.toString();
+    }
+}
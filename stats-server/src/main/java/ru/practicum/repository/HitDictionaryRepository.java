@@ -0,0 +1,54 @@
+package ru.practicum.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Slf4j
+@Repository
+public class HitDictionaryRepository {
+    public static final String APPS = "hit_apps";
+    public static final String URIS = "hit_uris";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+
+    public HitDictionaryRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public int getOrCreateId(String dictionary, String name) {
+        Integer id = findId(dictionary, name);
+        if (id != null) {
+            return id;
+        }
+
+        try {
+            newTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.update("INSERT INTO " + dictionary + " (name) VALUES (?)", name));
+        } catch (DuplicateKeyException e) {
+            log.debug("Dictionary {} entry {} was created concurrently", dictionary, name);
+        }
+        return findId(dictionary, name);
+    }
+
+    public String findName(String dictionary, int id) {
+        List<String> names = jdbcTemplate.queryForList("SELECT name FROM " + dictionary + " WHERE id = ?",
+                String.class, id);
+        return names.isEmpty() ? null : names.get(0);
+    }
+
+    private Integer findId(String dictionary, String name) {
+        List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM " + dictionary + " WHERE name = ?",
+                Integer.class, name);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Repository
+public class HitPartitionRepository {
+    private static final String DEFAULT_PARTITION = "hits_default";
+
+    private static final Pattern RANGE_BOUND =
+            Pattern.compile("FOR VALUES FROM \\('([^']+)'\\) TO \\('([^']+)'\\)");
+
+    private static final String IS_PARTITIONED = "SELECT COUNT(*) FROM pg_partitioned_table p " +
+            "JOIN pg_class c ON c.oid = p.partrelid " +
+            "WHERE c.relname = 'hits' AND c.relnamespace = to_regnamespace(current_schema())";
+
+    private static final String FIND_PARTITIONS = "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) " +
+            "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'hits'::regclass";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public HitPartitionRepository(JdbcTemplate jdbcTemplate, DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.postgres = "PostgreSQL".equals(product);
+    }
+
+    public boolean isPartitioned() {
+        return postgres && jdbcTemplate.queryForObject(IS_PARTITIONED, Long.class) > 0;
+    }
+
+    public List<HitPartition> findRangePartitions() {
+        List<HitPartition> partitions = new ArrayList<>();
+        jdbcTemplate.query(FIND_PARTITIONS, rs -> {
+            Matcher matcher = RANGE_BOUND.matcher(rs.getString(2));
+            if (matcher.matches()) {
+                partitions.add(new HitPartition(rs.getString(1),
+                        Timestamp.valueOf(matcher.group(1)).toLocalDateTime(),
+                        Timestamp.valueOf(matcher.group(2)).toLocalDateTime()));
+            }
+        });
+        return partitions;
+    }
+
+    public long createPartition(String name, LocalDateTime from, LocalDateTime to) {
+        Timestamp fromBound = Timestamp.valueOf(from);
+        Timestamp toBound = Timestamp.valueOf(to);
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE hits INCLUDING DEFAULTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                " WHERE timestamp >= ? AND timestamp < ? RETURNING id, app_id, uri_id, ip, timestamp, weight) " +
+                "INSERT INTO " + name + " (id, app_id, uri_id, ip, timestamp, weight) SELECT * FROM moved", fromBound, toBound);
+        attachPartition(new HitPartition(name, from, to));
+        return moved;
+    }
+
+    public void attachPartition(HitPartition partition) {
+        jdbcTemplate.execute("ALTER TABLE hits ATTACH PARTITION " + partition.name() + " FOR VALUES FROM ('" +
+                Timestamp.valueOf(partition.from()) + "') TO ('" + Timestamp.valueOf(partition.to()) + "')");
+    }
+
+    public void detachPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE hits DETACH PARTITION " + name);
+    }
+
+    public void dropPartition(String name) {
+        jdbcTemplate.execute("DROP TABLE " + name);
+    }
+
+    public int deleteDefaultBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE timestamp < ?",
+                Timestamp.valueOf(cutoff));
+    }
+
+    public record HitPartition(String name, LocalDateTime from, LocalDateTime to) {
+    }
+}
@@ -1,22 +1,49 @@
 package ru.practicum.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.model.Hit;
+import ru.practicum.projection.HitIpProjection;
 import ru.practicum.projection.StatsProjection;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface HitRepository extends JpaRepository<Hit, Long> {
-    @Query("SELECT h.app AS app, h.uri AS uri, " +
-            "CASE WHEN :unique = true THEN COUNT(DISTINCT h.ip) ELSE COUNT(h) END AS hits " +
+    String STREAM_FETCH_SIZE = "500";
+
+    String HITS_BY_TIME_RANGE = "SELECT h.appId AS appId, h.uriId AS uriId, " +
+            "CASE WHEN :unique = true THEN COUNT(DISTINCT h.ipAddress) ELSE SUM(h.weight) END AS hits, " +
+            "COUNT(h.id) AS matched " +
+            "FROM Hit h " +
+            "WHERE h.timestamp BETWEEN :start AND :end ";
+
+    String URI_FILTER = "AND h.uriId IN (SELECT d.id FROM HitUri d WHERE d.name IN :uris) ";
+
+    String GROUP_BY_IDS = "GROUP BY h.appId, h.uriId";
+
+    String JOIN_NAMES = "JOIN HitApp a ON a.id = s.appId " +
+            "JOIN HitUri u ON u.id = s.uriId ";
+
+    String SELECT_STATS = "SELECT a.name AS app, u.name AS uri, s.hits AS hits, s.matched AS matched FROM (";
+
+    String COUNT_IN_RANGE = "SELECT h.appId AS appId, h.uriId AS uriId, SUM(h.weight) AS hits, COUNT(h.id) AS matched " +
             "FROM Hit h " +
-            "WHERE h.timestamp BETWEEN :start AND :end " +
-            "AND h.uri IN :uris " +
-            "GROUP BY h.app, h.uri " +
-            "ORDER BY hits DESC")
+            "WHERE h.timestamp >= :from AND h.timestamp < :to ";
+
+    String DISTINCT_IPS_IN_RANGE = "SELECT DISTINCT h.appId AS appId, h.uriId AS uriId, h.ipAddress AS ip " +
+            "FROM Hit h " +
+            "WHERE h.timestamp >= :from AND h.timestamp < :to ";
+
+    String SELECT_IPS = "SELECT a.name AS app, u.name AS uri, s.ip AS ip FROM (";
+
+    @Query(SELECT_STATS + HITS_BY_TIME_RANGE + URI_FILTER + GROUP_BY_IDS + ") s " + JOIN_NAMES +
+            "ORDER BY s.hits DESC")
     List<StatsProjection> findHitsByTimeRangeAndUris(
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end,
@@ -24,14 +51,62 @@ public interface HitRepository extends JpaRepository<Hit, Long> {
             @Param("unique") boolean unique);
 
 
-    @Query("SELECT h.app AS app, h.uri AS uri, " +
-            "CASE WHEN :unique = true THEN COUNT(DISTINCT h.ip) ELSE COUNT(h) END AS hits " +
-            "FROM Hit h " +
-            "WHERE h.timestamp BETWEEN :start AND :end " +
-            "GROUP BY h.app, h.uri " +
-            "ORDER BY hits DESC")
+    @Query(SELECT_STATS + HITS_BY_TIME_RANGE + GROUP_BY_IDS + ") s " + JOIN_NAMES +
+            "ORDER BY s.hits DESC")
     List<StatsProjection> findHitsByTimeRange(
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end,
             @Param("unique") boolean unique);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SELECT_STATS + HITS_BY_TIME_RANGE + URI_FILTER + GROUP_BY_IDS + ") s " + JOIN_NAMES +
+            "ORDER BY s.hits DESC")
+    Stream<StatsProjection> streamHitsByTimeRangeAndUris(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("uris") List<String> uris,
+            @Param("unique") boolean unique);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SELECT_STATS + HITS_BY_TIME_RANGE + GROUP_BY_IDS + ") s " + JOIN_NAMES +
+            "ORDER BY s.hits DESC")
+    Stream<StatsProjection> streamHitsByTimeRange(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("unique") boolean unique);
+
+    @Query(SELECT_STATS + COUNT_IN_RANGE + URI_FILTER + GROUP_BY_IDS + ") s " + JOIN_NAMES)
+    List<StatsProjection> countHitsInRangeAndUris(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("uris") List<String> uris);
+
+    @Query(SELECT_STATS + COUNT_IN_RANGE + GROUP_BY_IDS + ") s " + JOIN_NAMES)
+    List<StatsProjection> countHitsInRange(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query(SELECT_IPS + DISTINCT_IPS_IN_RANGE + URI_FILTER + ") s " + JOIN_NAMES)
+    List<HitIpProjection> findDistinctIpsInRangeAndUris(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("uris") List<String> uris);
+
+    @Query(SELECT_IPS + DISTINCT_IPS_IN_RANGE + ") s " + JOIN_NAMES)
+    List<HitIpProjection> findDistinctIpsInRange(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SELECT_IPS + DISTINCT_IPS_IN_RANGE + URI_FILTER + ") s " + JOIN_NAMES)
+    Stream<HitIpProjection> streamDistinctIpsInRangeAndUris(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("uris") List<String> uris);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SELECT_IPS + DISTINCT_IPS_IN_RANGE + ") s " + JOIN_NAMES)
+    Stream<HitIpProjection> streamDistinctIpsInRange(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,82 @@
+package ru.practicum.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.BucketGranularity;
+import ru.practicum.model.BucketKey;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Repository
+public class HitRollupRepository {
+    private static final String UPSERT_POSTGRES = "INSERT INTO hit_rollups (granularity, bucket_start, app, uri, hits) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (granularity, bucket_start, app, uri) DO UPDATE SET hits = hit_rollups.hits + EXCLUDED.hits";
+
+    private static final String UPSERT_STANDARD = "MERGE INTO hit_rollups r " +
+            "USING (VALUES (CAST(? AS VARCHAR(10)), CAST(? AS TIMESTAMP), CAST(? AS VARCHAR(255)), " +
+            "CAST(? AS VARCHAR(255)), CAST(? AS BIGINT))) AS d (granularity, bucket_start, app, uri, hits) " +
+            "ON r.granularity = d.granularity AND r.bucket_start = d.bucket_start " +
+            "AND r.app = d.app AND r.uri = d.uri " +
+            "WHEN MATCHED THEN UPDATE SET hits = r.hits + d.hits " +
+            "WHEN NOT MATCHED THEN INSERT (granularity, bucket_start, app, uri, hits) " +
+            "VALUES (d.granularity, d.bucket_start, d.app, d.uri, d.hits)";
+
+    private static final String SUM_HITS = "SELECT app, uri, SUM(hits) AS hits FROM hit_rollups " +
+            "WHERE granularity = :granularity AND bucket_start >= :from AND bucket_start < :to ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final String upsert;
+
+    public HitRollupRepository(JdbcTemplate jdbcTemplate, DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.upsert = "PostgreSQL".equals(product) ? UPSERT_POSTGRES : UPSERT_STANDARD;
+    }
+
+    public void increment(Map<BucketKey, Long> deltas) {
+        List<Map.Entry<BucketKey, Long>> rows = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(upsert, rows, rows.size(), (ps, row) -> {
+            BucketKey key = row.getKey();
+            ps.setString(1, key.granularity().name());
+            ps.setTimestamp(2, Timestamp.valueOf(key.bucketStart()));
+            ps.setString(3, key.app());
+            ps.setString(4, key.uri());
+            ps.setLong(5, row.getValue());
+        });
+    }
+
+    public void sumHits(BucketGranularity granularity, LocalDateTime from, LocalDateTime to, List<String> uris,
+                        Consumer<RollupRow> consumer) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("granularity", granularity.name())
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+
+        String sql = SUM_HITS;
+        if (!uris.isEmpty()) {
+            sql += "AND uri IN (:uris) ";
+            parameters.addValue("uris", uris);
+        }
+
+        namedJdbcTemplate.query(sql + "GROUP BY app, uri", parameters, rs -> {
+            consumer.accept(new RollupRow(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+        });
+    }
+
+    public record RollupRow(String app, String uri, long hits) {
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.BucketGranularity;
+import ru.practicum.model.BucketKey;
+import ru.practicum.sketch.HyperLogLog;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+@Repository
+public class HitSketchRepository {
+    private static final String INSERT_SKETCH = "INSERT INTO hit_sketches (granularity, bucket_start, app, uri, registers) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_SKETCHES = "SELECT granularity, bucket_start, app, uri, registers FROM hit_sketches " +
+            "WHERE granularity = :granularity AND bucket_start >= :from AND bucket_start < :to ";
+
+    private static final String SELECT_FRAGMENTED_KEYS = "SELECT granularity, bucket_start, app, uri FROM hit_sketches " +
+            "GROUP BY granularity, bucket_start, app, uri HAVING COUNT(*) > 1 LIMIT ?";
+
+    private static final String SELECT_KEY_ROWS = "SELECT id, registers FROM hit_sketches " +
+            "WHERE granularity = ? AND bucket_start = ? AND app = ? AND uri = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public HitSketchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public void insertAll(Map<BucketKey, HyperLogLog> sketches) {
+        List<Map.Entry<BucketKey, HyperLogLog>> rows = new ArrayList<>(sketches.entrySet());
+        jdbcTemplate.batchUpdate(INSERT_SKETCH, rows, rows.size(), (ps, row) -> {
+            BucketKey key = row.getKey();
+            ps.setString(1, key.granularity().name());
+            ps.setTimestamp(2, Timestamp.valueOf(key.bucketStart()));
+            ps.setString(3, key.app());
+            ps.setString(4, key.uri());
+            ps.setBytes(5, row.getValue().toBytes());
+        });
+    }
+
+    public void forEachSketch(BucketGranularity granularity, LocalDateTime from, LocalDateTime to, List<String> uris,
+                              BiConsumer<BucketKey, HyperLogLog> consumer) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("granularity", granularity.name())
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+
+        String sql = SELECT_SKETCHES;
+        if (!uris.isEmpty()) {
+            sql += "AND uri IN (:uris)";
+            parameters.addValue("uris", uris);
+        }
+
+        namedJdbcTemplate.query(sql, parameters, rs -> {
+            BucketKey key = new BucketKey(granularity, rs.getTimestamp("bucket_start").toLocalDateTime(),
+                    rs.getString("app"), rs.getString("uri"));
+            consumer.accept(key, HyperLogLog.fromBytes(rs.getBytes("registers")));
+        });
+    }
+
+    public List<BucketKey> findFragmentedKeys(int limit) {
+        return jdbcTemplate.query(SELECT_FRAGMENTED_KEYS, (rs, rowNum) -> new BucketKey(
+                BucketGranularity.valueOf(rs.getString("granularity")),
+                rs.getTimestamp("bucket_start").toLocalDateTime(),
+                rs.getString("app"),
+                rs.getString("uri")), limit);
+    }
+
+    public void compact(BucketKey key) {
+        List<Long> ids = new ArrayList<>();
+        List<HyperLogLog> sketches = new ArrayList<>();
+        jdbcTemplate.query(SELECT_KEY_ROWS, rs -> {
+            ids.add(rs.getLong("id"));
+            sketches.add(HyperLogLog.fromBytes(rs.getBytes("registers")));
+        }, key.granularity().name(), Timestamp.valueOf(key.bucketStart()), key.app(), key.uri());
+
+        if (sketches.size() < 2) {
+            return;
+        }
+
+        HyperLogLog merged = sketches.get(0);
+        sketches.subList(1, sketches.size()).forEach(merged::merge);
+
+        namedJdbcTemplate.update("DELETE FROM hit_sketches WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids));
+        insertAll(Map.of(key, merged));
+    }
+}
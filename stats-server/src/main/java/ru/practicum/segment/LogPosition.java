@@ -0,0 +1,11 @@
+package ru.practicum.segment;
+
+public record LogPosition(long segment, int offset) implements Comparable<LogPosition> {
+    public static final LogPosition START = new LogPosition(0, 0);
+
+    @Override
+    public int compareTo(LogPosition other) {
+        int bySegment = Long.compare(segment, other.segment);
+        return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+    }
+}
@@ -0,0 +1,263 @@
+package ru.practicum.segment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of opaque records stored in fixed-size memory-mapped segment files.
+ * Each record is written as its length, a CRC32 of the payload and the payload itself; a zero length marks
+ * the unwritten tail of a segment. {@link #force()} also forces segments filled since the previous call, so
+ * records written just before a rollover are synced too. A single reader consumes records from the last
+ * committed checkpoint, and segments that lie entirely before the checkpoint are deleted on commit.
+ */
+public class SegmentLog implements Closeable {
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String CHECKPOINT_TEMP_FILE = "checkpoint.tmp";
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock readLock = new ReentrantLock();
+    private final ReentrantLock commitLock = new ReentrantLock();
+
+    private final List<MappedByteBuffer> unforced = new ArrayList<>();
+
+    private MappedByteBuffer writeBuffer;
+    private long writeSegment;
+    private volatile LogPosition end;
+    private volatile LogPosition checkpoint;
+
+    private ByteBuffer readBuffer;
+    private long readSegment = -1;
+
+    private SegmentLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    public static SegmentLog open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Segment size should exceed " + HEADER_BYTES + " bytes");
+        }
+
+        SegmentLog log = new SegmentLog(directory, segmentSize);
+        log.recover();
+        return log;
+    }
+
+    public LogPosition append(byte[] record) throws IOException {
+        if (record.length == 0 || record.length > segmentSize - HEADER_BYTES) {
+            throw new IllegalArgumentException("Record size should be between 1 and "
+                    + (segmentSize - HEADER_BYTES) + " bytes");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(record);
+
+        writeLock.lock();
+        try {
+            if (writeBuffer.remaining() < HEADER_BYTES + record.length) {
+                unforced.add(writeBuffer);
+                writeSegment++;
+                writeBuffer = map(writeSegment, FileChannel.MapMode.READ_WRITE);
+            }
+
+            writeBuffer.putInt(record.length);
+            writeBuffer.putInt((int) crc.getValue());
+            writeBuffer.put(record);
+
+            end = new LogPosition(writeSegment, writeBuffer.position());
+            return end;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void force() {
+        writeLock.lock();
+        try {
+            for (MappedByteBuffer buffer : unforced) {
+                buffer.force();
+            }
+            unforced.clear();
+            writeBuffer.force();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public LogPosition read(LogPosition from, int maxRecords, Consumer<byte[]> consumer) throws IOException {
+        readLock.lock();
+        try {
+            LogPosition limit = end;
+            long segment = from.segment();
+            int offset = from.offset();
+            int records = 0;
+
+            while (records < maxRecords && (segment < limit.segment() || offset < limit.offset())) {
+                ByteBuffer buffer = readBuffer(segment);
+                int length = segmentSize - offset >= HEADER_BYTES ? buffer.getInt(offset) : 0;
+                if (length <= 0 || length > segmentSize - offset - HEADER_BYTES) {
+                    if (segment == limit.segment()) {
+                        break;
+                    }
+                    segment++;
+                    offset = 0;
+                    continue;
+                }
+
+                byte[] record = new byte[length];
+                buffer.get(offset + HEADER_BYTES, record);
+                consumer.accept(record);
+                offset += HEADER_BYTES + length;
+                records++;
+            }
+
+            return new LogPosition(segment, offset);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public void commit(LogPosition position) throws IOException {
+        commitLock.lock();
+        try {
+            if (position.compareTo(checkpoint) <= 0) {
+                return;
+            }
+
+            ByteBuffer state = ByteBuffer.allocate(Long.BYTES + Integer.BYTES)
+                    .putLong(position.segment())
+                    .putInt(position.offset());
+            Path temp = directory.resolve(CHECKPOINT_TEMP_FILE);
+            Files.write(temp, state.array());
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            checkpoint = position;
+
+            for (long segment : listSegments()) {
+                if (segment < position.segment()) {
+                    Files.deleteIfExists(segmentPath(segment));
+                }
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    public LogPosition checkpoint() {
+        return checkpoint;
+    }
+
+    public LogPosition end() {
+        return end;
+    }
+
+    @Override
+    public void close() {
+        force();
+        readLock.lock();
+        try {
+            readBuffer = null;
+            readSegment = -1;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+
+        Path checkpointPath = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointPath)) {
+            ByteBuffer state = ByteBuffer.wrap(Files.readAllBytes(checkpointPath));
+            checkpoint = new LogPosition(state.getLong(), state.getInt());
+        } else {
+            checkpoint = LogPosition.START;
+        }
+
+        List<Long> segments = listSegments();
+        writeSegment = segments.isEmpty()
+                ? checkpoint.segment()
+                : Math.max(checkpoint.segment(), segments.get(segments.size() - 1));
+        writeBuffer = map(writeSegment, FileChannel.MapMode.READ_WRITE);
+
+        int offset = 0;
+        while (segmentSize - offset >= HEADER_BYTES) {
+            int length = writeBuffer.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (!isValidRecord(writeBuffer, offset, length)) {
+                for (int i = offset; i < segmentSize; i++) {
+                    writeBuffer.put(i, (byte) 0);
+                }
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+
+        writeBuffer.position(offset);
+        end = new LogPosition(writeSegment, offset);
+    }
+
+    private boolean isValidRecord(ByteBuffer buffer, int offset, int length) {
+        if (length < 0 || length > segmentSize - offset - HEADER_BYTES) {
+            return false;
+        }
+
+        byte[] record = new byte[length];
+        buffer.get(offset + HEADER_BYTES, record);
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        return (int) crc.getValue() == buffer.getInt(offset + Integer.BYTES);
+    }
+
+    private ByteBuffer readBuffer(long segment) throws IOException {
+        if (segment != readSegment) {
+            readBuffer = map(segment, FileChannel.MapMode.READ_ONLY);
+            readSegment = segment;
+        }
+        return readBuffer;
+    }
+
+    private MappedByteBuffer map(long segment, FileChannel.MapMode mode) throws IOException {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_WRITE
+                ? new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ};
+        try (FileChannel channel = FileChannel.open(segmentPath(segment), options)) {
+            return channel.map(mode, 0, segmentSize);
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> segments.add(Long.parseLong(
+                            name.substring(0, name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%019d%s", segment, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.service;
+
+import ru.practicum.StatsDto;
+
+import java.util.List;
+
+public record ApproximateStats(List<StatsDto> stats, double relativeError) {
+}
@@ -0,0 +1,8 @@
+package ru.practicum.service;
+
+import java.time.LocalDateTime;
+
+@FunctionalInterface
+public interface BucketLoader {
+    BucketStats load(LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,41 @@
+package ru.practicum.service;
+
+import ru.practicum.model.BucketGranularity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public record BucketPlan(List<Segment> buckets, List<Segment> raw) {
+
+    public record Segment(BucketGranularity granularity, LocalDateTime from, LocalDateTime to) {
+    }
+
+    public static BucketPlan of(LocalDateTime from, LocalDateTime to, List<BucketGranularity> granularities) {
+        BucketPlan plan = new BucketPlan(new ArrayList<>(), new ArrayList<>());
+        plan.split(from, to, granularities, 0);
+        return plan;
+    }
+
+    private void split(LocalDateTime from, LocalDateTime to, List<BucketGranularity> granularities, int level) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (level == granularities.size()) {
+            raw.add(new Segment(null, from, to));
+            return;
+        }
+
+        BucketGranularity granularity = granularities.get(level);
+        LocalDateTime firstBucket = granularity.ceil(from);
+        LocalDateTime lastBucketEnd = granularity.floor(to);
+        if (!firstBucket.isBefore(lastBucketEnd)) {
+            split(from, to, granularities, level + 1);
+            return;
+        }
+
+        split(from, firstBucket, granularities, level + 1);
+        buckets.add(new Segment(granularity, firstBucket, lastBucketEnd));
+        split(lastBucketEnd, to, granularities, level + 1);
+    }
+}
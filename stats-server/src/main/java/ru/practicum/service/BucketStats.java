@@ -0,0 +1,70 @@
+package ru.practicum.service;
+
+import ru.practicum.StatsDto;
+import ru.practicum.sketch.HyperLogLog;
+import ru.practicum.utils.IpAddresses;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mergeable partial stats for one bucket or chunk: summed hit counts, and a HyperLogLog sketch of ip addresses
+ * per app and uri for unique counts. Sketches stay exact while they are sparse, so small sets count exactly and
+ * only large ones turn into estimates with {@link #relativeError()}.
+ */
+public class BucketStats {
+    public static final int SKETCH_PRECISION = 14;
+
+    private final Map<StatsKey, Long> counts = new HashMap<>();
+    private final Map<StatsKey, HyperLogLog> sketches = new HashMap<>();
+
+    public void addCount(String app, String uri, long count) {
+        counts.merge(new StatsKey(app, uri), count, Long::sum);
+    }
+
+    public void addIp(String app, String uri, byte[] ip) {
+        addIp(app, uri, IpAddresses.toString(ip));
+    }
+
+    public void addIp(String app, String uri, String ip) {
+        sketches.computeIfAbsent(new StatsKey(app, uri), key -> new HyperLogLog(SKETCH_PRECISION)).add(ip);
+    }
+
+    public void addSketch(String app, String uri, HyperLogLog sketch) {
+        sketches.computeIfAbsent(new StatsKey(app, uri), key -> new HyperLogLog(SKETCH_PRECISION)).merge(sketch);
+    }
+
+    public void merge(BucketStats other) {
+        other.counts.forEach((key, count) -> counts.merge(key, count, Long::sum));
+        other.sketches.forEach((key, sketch) -> sketches.computeIfAbsent(key,
+                k -> new HyperLogLog(SKETCH_PRECISION)).merge(sketch));
+    }
+
+    public int weight() {
+        int weight = counts.size();
+        for (HyperLogLog sketch : sketches.values()) {
+            weight += sketch.sizeInBytes() / Long.BYTES;
+        }
+        return Math.max(weight, 1);
+    }
+
+    public double relativeError() {
+        for (HyperLogLog sketch : sketches.values()) {
+            if (!sketch.isExact()) {
+                return HyperLogLog.relativeError(SKETCH_PRECISION);
+            }
+        }
+        return 0;
+    }
+
+    public List<StatsDto> toStatsDtos() {
+        StatsAccumulator accumulator = new StatsAccumulator();
+        counts.forEach((key, count) -> accumulator.add(key.app(), key.uri(), count));
+        sketches.forEach((key, sketch) -> accumulator.add(key.app(), key.uri(), sketch.estimate()));
+        return accumulator.toStatsDtos();
+    }
+
+    private record StatsKey(String app, String uri) {
+    }
+}
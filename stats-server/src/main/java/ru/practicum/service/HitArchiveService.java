@@ -0,0 +1,331 @@
+package ru.practicum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.archive.ArchivedHit;
+import ru.practicum.archive.ColumnarHitFile;
+import ru.practicum.config.ArchiveProperties;
+import ru.practicum.config.PartitionProperties;
+import ru.practicum.projection.HitIpProjection;
+import ru.practicum.projection.StatsProjection;
+import ru.practicum.repository.HitArchiveRepository;
+import ru.practicum.repository.HitPartitionRepository;
+import ru.practicum.repository.HitPartitionRepository.HitPartition;
+import ru.practicum.repository.HitRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Moves hits older than {@code stats.archive.older-than} into columnar files, one per archived time range. On a
+ * partitioned {@code hits} table whole range partitions are detached, written out and dropped, so archiving never
+ * deletes rows one by one; an unpartitioned table falls back to archiving a day at a time. Files are expired with
+ * the {@code stats.partition.retention} that applies to the live partitions.
+ */
+@Slf4j
+@Service
+public class HitArchiveService {
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final Pattern FILE_NAME = Pattern.compile("hits-(\\d{8})-(\\d{8})\\.col");
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final ArchiveProperties properties;
+    private final PartitionProperties partitionProperties;
+    private final HitArchiveRepository hitArchiveRepository;
+    private final HitPartitionRepository hitPartitionRepository;
+    private final HitRepository hitRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final NavigableSet<ArchiveFile> archives = new ConcurrentSkipListSet<>(
+            Comparator.comparing(ArchiveFile::from).thenComparing(ArchiveFile::to));
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public HitArchiveService(ArchiveProperties properties,
+                             PartitionProperties partitionProperties,
+                             HitArchiveRepository hitArchiveRepository,
+                             HitPartitionRepository hitPartitionRepository,
+                             HitRepository hitRepository,
+                             TransactionTemplate transactionTemplate) throws IOException {
+        this.properties = properties;
+        this.partitionProperties = partitionProperties;
+        this.hitArchiveRepository = hitArchiveRepository;
+        this.hitPartitionRepository = hitPartitionRepository;
+        this.hitRepository = hitRepository;
+        this.transactionTemplate = transactionTemplate;
+
+        if (isEnabled()) {
+            Files.createDirectories(properties.getDirectory());
+            try (Stream<Path> files = Files.list(properties.getDirectory())) {
+                files.map(path -> FILE_NAME.matcher(path.getFileName().toString()))
+                        .filter(Matcher::matches)
+                        .map(matcher -> new ArchiveFile(LocalDate.parse(matcher.group(1), FILE_DATE),
+                                LocalDate.parse(matcher.group(2), FILE_DATE)))
+                        .forEach(archives::add);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Scheduled(fixedDelayString = "${stats.archive.interval:PT1H}")
+    public void archive() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        archiveBefore(now.minus(properties.getOlderThan()));
+        if (partitionProperties.isEnabled() && partitionProperties.getRetention() != null) {
+            expireBefore(now.minus(partitionProperties.getRetention()));
+        }
+    }
+
+    public void archiveBefore(LocalDateTime cutoff) {
+        lock.lock();
+        try {
+            if (hitPartitionRepository.isPartitioned()) {
+                archivePartitionsBefore(cutoff);
+            } else {
+                archiveDaysBefore(cutoff);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void expireBefore(LocalDateTime cutoff) {
+        lock.lock();
+        try {
+            for (ArchiveFile archive : archives) {
+                if (archive.to().atStartOfDay().isAfter(cutoff)) {
+                    continue;
+                }
+
+                try {
+                    archives.remove(archive);
+                    Files.deleteIfExists(file(archive));
+                    log.info("Deleted hit archive {} past retention", file(archive));
+                } catch (IOException e) {
+                    log.error("Failed to delete hit archive {}", file(archive), e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<BucketStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+        if (!isEnabled() || !hasArchivedDays(start, end)) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(transactionTemplate.execute(status -> unique
+                ? loadUniqueStats(start, end, uris)
+                : loadStats(start, end, uris)));
+    }
+
+    public void forEachArchived(LocalDateTime start, LocalDateTime end, List<String> uris, HitIpConsumer consumer) {
+        scanArchived(start, end, uris, (app, uri, hit) -> consumer.accept(app, uri, hit.ip()));
+    }
+
+    public void forEachArchivedCount(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                     HitCountConsumer consumer) {
+        scanArchived(start, end, uris, (app, uri, hit) -> consumer.accept(app, uri, hit.weight()));
+    }
+
+    private BucketStats loadStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        BucketStats stats = new BucketStats();
+        forEachArchivedCount(start, end, uris, stats::addCount);
+        try (Stream<StatsProjection> live = uris.isEmpty()
+                ? hitRepository.streamHitsByTimeRange(start, end, false)
+                : hitRepository.streamHitsByTimeRangeAndUris(start, end, uris, false)) {
+            live.forEach(row -> stats.addCount(row.getApp(), row.getUri(), row.getHits()));
+        }
+        return stats;
+    }
+
+    private BucketStats loadUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        BucketStats stats = new BucketStats();
+        forEachArchived(start, end, uris, stats::addIp);
+        LocalDateTime to = end.plus(1, ChronoUnit.MICROS);
+        try (Stream<HitIpProjection> live = uris.isEmpty()
+                ? hitRepository.streamDistinctIpsInRange(start, to)
+                : hitRepository.streamDistinctIpsInRangeAndUris(start, to, uris)) {
+            live.forEach(row -> stats.addIp(row.getApp(), row.getUri(), row.getIp()));
+        }
+        return stats;
+    }
+
+    private void scanArchived(LocalDateTime start, LocalDateTime end, List<String> uris, ArchivedHitConsumer consumer) {
+        if (!isEnabled() || !hasArchivedDays(start, end)) {
+            return;
+        }
+
+        long fromMicros = ColumnarHitFile.toMicros(start);
+        long toMicros = ColumnarHitFile.toMicros(end);
+        Set<String> uriFilter = new HashSet<>(uris);
+
+        for (ArchiveFile archive : overlapping(start, end)) {
+            Path file = file(archive);
+            if (!Files.exists(file)) {
+                log.warn("Hit archive {} is missing, skipping it", file);
+                archives.remove(archive);
+                continue;
+            }
+
+            try {
+                ColumnarHitFile.forEach(file, hit -> {
+                    if (hit.timestampMicros() >= fromMicros && hit.timestampMicros() <= toMicros
+                            && (uriFilter.isEmpty() || uriFilter.contains(hit.uri()))) {
+                        consumer.accept(hit.app(), hit.uri(), hit);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read hit archive " + file, e);
+            }
+        }
+    }
+
+    private void archivePartitionsBefore(LocalDateTime cutoff) {
+        List<HitPartition> partitions = hitPartitionRepository.findRangePartitions().stream()
+                .filter(partition -> !partition.to().isAfter(cutoff))
+                .sorted(Comparator.comparing(HitPartition::from))
+                .toList();
+
+        for (HitPartition partition : partitions) {
+            ArchiveFile archive = new ArchiveFile(partition.from().toLocalDate(), partition.to().toLocalDate());
+            transactionTemplate.executeWithoutResult(status -> hitPartitionRepository.detachPartition(partition.name()));
+            try {
+                Path temp = transactionTemplate.execute(status -> writeArchive(archive,
+                        consumer -> hitArchiveRepository.streamPartition(partition.name(), consumer)));
+                publish(archive, temp);
+            } catch (RuntimeException e) {
+                log.error("Failed to archive hits partition {}, attaching it back", partition.name(), e);
+                transactionTemplate.executeWithoutResult(status -> hitPartitionRepository.attachPartition(partition));
+                return;
+            }
+
+            transactionTemplate.executeWithoutResult(status -> hitPartitionRepository.dropPartition(partition.name()));
+            log.info("Archived hits partition {} to {}", partition.name(), file(archive));
+        }
+    }
+
+    private void archiveDaysBefore(LocalDateTime cutoff) {
+        LocalDate lastDay = cutoff.toLocalDate();
+        LocalDateTime oldest;
+        while ((oldest = hitArchiveRepository.findOldestTimestamp()) != null && oldest.toLocalDate().isBefore(lastDay)) {
+            LocalDate day = oldest.toLocalDate();
+            try {
+                Integer archived = transactionTemplate.execute(status -> archiveDay(day));
+                log.info("Archived {} hits from {}", archived, day);
+            } catch (RuntimeException e) {
+                log.error("Failed to archive hits from {}", day, e);
+                return;
+            }
+        }
+    }
+
+    private int archiveDay(LocalDate day) {
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+        ArchiveFile archive = new ArchiveFile(day, day.plusDays(1));
+        Path temp = writeArchive(archive, consumer -> hitArchiveRepository.streamHits(from, to, consumer));
+        int deleted = hitArchiveRepository.deleteHits(from, to);
+        publish(archive, temp);
+        return deleted;
+    }
+
+    private Path writeArchive(ArchiveFile archive, Consumer<Consumer<ArchivedHit>> source) {
+        Path file = file(archive);
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        try {
+            try (ColumnarHitFile.Writer writer = new ColumnarHitFile.Writer(temp)) {
+                Set<Long> archivedIds = new HashSet<>();
+                if (Files.exists(file)) {
+                    ColumnarHitFile.forEach(file, hit -> {
+                        archivedIds.add(hit.id());
+                        append(writer, hit);
+                    });
+                }
+                source.accept(hit -> {
+                    if (!archivedIds.contains(hit.id())) {
+                        append(writer, hit);
+                    }
+                });
+            }
+            return temp;
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            if (e instanceof IOException io) {
+                throw new UncheckedIOException("Failed to write hit archive " + file, io);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    private void publish(ArchiveFile archive, Path temp) {
+        try {
+            Files.move(temp, file(archive), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            archives.add(archive);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to publish hit archive " + file(archive), e);
+        }
+    }
+
+    private static void append(ColumnarHitFile.Writer writer, ArchivedHit hit) {
+        try {
+            writer.append(hit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean hasArchivedDays(LocalDateTime start, LocalDateTime end) {
+        return !start.isAfter(end) && !overlapping(start, end).isEmpty();
+    }
+
+    private List<ArchiveFile> overlapping(LocalDateTime start, LocalDateTime end) {
+        return archives.headSet(new ArchiveFile(end.toLocalDate(), LocalDate.MAX), true).stream()
+                .filter(archive -> archive.to().isAfter(start.toLocalDate()))
+                .toList();
+    }
+
+    private Path file(ArchiveFile archive) {
+        return properties.getDirectory().resolve("hits-" + archive.from().format(FILE_DATE) + "-" +
+                archive.to().format(FILE_DATE) + ".col");
+    }
+
+    private record ArchiveFile(LocalDate from, LocalDate to) {
+    }
+
+    @FunctionalInterface
+    private interface ArchivedHitConsumer {
+        void accept(String app, String uri, ArchivedHit hit);
+    }
+}
@@ -0,0 +1,6 @@
+package ru.practicum.service;
+
+@FunctionalInterface
+public interface HitCountConsumer {
+    void accept(String app, String uri, long count);
+}
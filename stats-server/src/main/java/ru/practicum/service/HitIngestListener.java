@@ -0,0 +1,9 @@
+package ru.practicum.service;
+
+import ru.practicum.model.Hit;
+
+import java.util.List;
+
+public interface HitIngestListener {
+    void onHitsSaved(List<Hit> hits);
+}
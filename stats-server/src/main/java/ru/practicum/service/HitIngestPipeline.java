@@ -0,0 +1,35 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.mapper.HitMapper;
+import ru.practicum.model.Hit;
+import ru.practicum.repository.HitBatchRepository;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class HitIngestPipeline {
+    private final HitBatchRepository hitBatchRepository;
+    private final HitMapper hitMapper;
+    private final HitSampler hitSampler;
+    private final List<HitIngestListener> listeners;
+
+    public void saveAll(List<Hit> hits) {
+        List<Hit> kept = hitSampler.sample(hits);
+        if (kept.isEmpty()) {
+            return;
+        }
+
+        kept.forEach(hitMapper::encode);
+        hitBatchRepository.saveAll(kept);
+        notifySaved(kept);
+    }
+
+    public void notifySaved(List<Hit> hits) {
+        for (HitIngestListener listener : listeners) {
+            listener.onHitsSaved(hits);
+        }
+    }
+}
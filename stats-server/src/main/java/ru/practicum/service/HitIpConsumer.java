@@ -0,0 +1,6 @@
+package ru.practicum.service;
+
+@FunctionalInterface
+public interface HitIpConsumer {
+    void accept(String app, String uri, byte[] ip);
+}
@@ -0,0 +1,184 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.CompactHitDto;
+import ru.practicum.HitBinaryCodec;
+import ru.practicum.config.IngestMode;
+import ru.practicum.config.IngestProperties;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.mapper.HitMapper;
+import ru.practicum.model.Hit;
+import ru.practicum.segment.LogPosition;
+import ru.practicum.segment.SegmentLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+public class HitLogService implements SmartLifecycle {
+    private final IngestProperties properties;
+    private final HitIngestPipeline hitIngestPipeline;
+    private final HitMapper hitMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer replayTimer;
+    private final Counter appendedCounter;
+    private final Counter replayedCounter;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile SegmentLog segmentLog;
+
+    public HitLogService(IngestProperties properties,
+                         HitIngestPipeline hitIngestPipeline,
+                         HitMapper hitMapper,
+                         TransactionTemplate transactionTemplate,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hitIngestPipeline = hitIngestPipeline;
+        this.hitMapper = hitMapper;
+        this.transactionTemplate = transactionTemplate;
+
+        Gauge.builder("stats.ingest.log.lag.segments", this, HitLogService::lagSegments)
+                .description("Log segments not yet replayed into the database")
+                .register(meterRegistry);
+        this.replayTimer = Timer.builder("stats.ingest.log.replay")
+                .description("Latency of hit log replay batches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.appendedCounter = Counter.builder("stats.ingest.log.appended")
+                .description("Hits acknowledged after being written to the local log")
+                .register(meterRegistry);
+        this.replayedCounter = Counter.builder("stats.ingest.log.replayed")
+                .description("Hits replayed from the local log into the database")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.getMode() == IngestMode.LOG;
+    }
+
+    public void append(List<CompactHitDto> hits) {
+        SegmentLog current = segmentLog;
+        if (current == null) {
+            throw new ServiceUnavailableException("Hit log is not open");
+        }
+
+        try {
+            for (CompactHitDto hit : hits) {
+                current.append(HitBinaryCodec.encode(hit));
+            }
+            if (properties.getLog().isFsync()) {
+                current.force();
+            }
+        } catch (IOException e) {
+            log.error("Failed to append {} hits to the hit log", hits.size(), e);
+            throw new ServiceUnavailableException("Hit log is not writable");
+        }
+        appendedCounter.increment(hits.size());
+    }
+
+    @Scheduled(fixedDelayString = "${stats.ingest.log.replay-interval:PT1S}")
+    public void replay() {
+        lock.lock();
+        try {
+            SegmentLog current = segmentLog;
+            if (current == null) {
+                return;
+            }
+
+            try {
+                replayAll(current);
+            } catch (RuntimeException | IOException e) {
+                log.warn("Hit log replay stopped at {}, retrying later: {}", current.checkpoint(), e.getMessage());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled() || segmentLog != null) {
+            return;
+        }
+
+        IngestProperties.Log logProperties = properties.getLog();
+        try {
+            segmentLog = SegmentLog.open(logProperties.getDirectory(),
+                    Math.toIntExact(logProperties.getSegmentSize().toBytes()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open hit log in " + logProperties.getDirectory(), e);
+        }
+        log.info("Hit log opened in {}: checkpoint {}, end {}", logProperties.getDirectory(),
+                segmentLog.checkpoint(), segmentLog.end());
+    }
+
+    @Override
+    public void stop() {
+        SegmentLog current = segmentLog;
+        if (current == null) {
+            return;
+        }
+
+        segmentLog = null;
+        lock.lock();
+        try {
+            replayAll(current);
+        } catch (RuntimeException | IOException e) {
+            log.warn("Hit log left unreplayed from {}: {}", current.checkpoint(), e.getMessage());
+        } finally {
+            current.close();
+            lock.unlock();
+        }
+        log.info("Hit log closed");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return segmentLog != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void replayAll(SegmentLog current) throws IOException {
+        int replayed;
+        do {
+            replayed = replayBatch(current);
+        } while (replayed > 0);
+    }
+
+    private int replayBatch(SegmentLog current) throws IOException {
+        List<Hit> batch = new ArrayList<>();
+        LogPosition position = current.read(current.checkpoint(), properties.getLog().getReplayBatchSize(),
+                record -> batch.add(hitMapper.fromCompactDtoToHit(HitBinaryCodec.read(ByteBuffer.wrap(record)))));
+        if (batch.isEmpty()) {
+            current.commit(position);
+            return 0;
+        }
+
+        replayTimer.record(() -> transactionTemplate.executeWithoutResult(status -> hitIngestPipeline.saveAll(batch)));
+        current.commit(position);
+        replayedCounter.increment(batch.size());
+        return batch.size();
+    }
+
+    private double lagSegments() {
+        SegmentLog current = segmentLog;
+        return current == null ? 0 : current.end().segment() - current.checkpoint().segment();
+    }
+}
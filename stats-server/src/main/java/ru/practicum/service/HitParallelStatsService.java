@@ -0,0 +1,97 @@
+package ru.practicum.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+import ru.practicum.config.ParallelStatsProperties;
+import ru.practicum.model.BucketGranularity;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class HitParallelStatsService {
+    private final ParallelStatsProperties properties;
+    private final ThreadPoolExecutor executor;
+
+    public HitParallelStatsService(ParallelStatsProperties properties) {
+        this.properties = properties;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                task -> {
+                    Thread thread = new Thread(task, "stats-chunk-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Optional<BucketStats> getStats(LocalDateTime start, LocalDateTime end, BucketLoader loader) {
+        LocalDateTime to = end.plus(1, ChronoUnit.MICROS);
+        if (!isEnabled() || Duration.between(start, to).compareTo(properties.getMinRange()) < 0) {
+            return Optional.empty();
+        }
+
+        BucketStats result = new BucketStats();
+        loadAll(chunks(start, to), loader).forEach(result::merge);
+        return Optional.of(result);
+    }
+
+    public List<BucketStats> loadAll(List<BucketPlan.Segment> segments, BucketLoader loader) {
+        if (!isEnabled() || segments.size() < 2) {
+            return segments.stream()
+                    .map(segment -> loader.load(segment.from(), segment.to()))
+                    .toList();
+        }
+
+        List<CompletableFuture<BucketStats>> futures = segments.stream()
+                .map(segment -> CompletableFuture.supplyAsync(() -> loader.load(segment.from(), segment.to()),
+                        executor))
+                .toList();
+        try {
+            return futures.stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public List<BucketPlan.Segment> chunks(LocalDateTime from, LocalDateTime to) {
+        List<BucketPlan.Segment> chunks = new ArrayList<>();
+        LocalDateTime boundary = BucketGranularity.DAY.floor(from);
+        LocalDateTime chunkStart = from;
+        while (chunkStart.isBefore(to)) {
+            while (!boundary.isAfter(chunkStart)) {
+                boundary = boundary.plus(properties.getChunk());
+            }
+            LocalDateTime chunkEnd = boundary.isBefore(to) ? boundary : to;
+            chunks.add(new BucketPlan.Segment(null, chunkStart, chunkEnd));
+            chunkStart = chunkEnd;
+        }
+        return chunks;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.config.PartitionProperties;
+import ru.practicum.model.PartitionInterval;
+import ru.practicum.repository.HitPartitionRepository;
+import ru.practicum.repository.HitPartitionRepository.HitPartition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HitPartitionService {
+    private final PartitionProperties properties;
+    private final HitPartitionRepository hitPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Scheduled(fixedDelayString = "${stats.partition.maintenance-interval:PT1H}")
+    public void maintain() {
+        lock.lock();
+        try {
+            if (!properties.isEnabled() || !hitPartitionRepository.isPartitioned()) {
+                return;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            PartitionInterval interval = properties.getInterval();
+            LocalDateTime from = interval.floor(now);
+            LocalDateTime to = from;
+            for (int i = 0; i <= properties.getPremake(); i++) {
+                to = interval.next(to);
+            }
+            createPartitions(from, to);
+
+            if (properties.getRetention() != null) {
+                dropPartitionsBefore(now.minus(properties.getRetention()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void createPartitions(LocalDateTime from, LocalDateTime to) {
+        lock.lock();
+        try {
+            PartitionInterval interval = properties.getInterval();
+            Set<LocalDateTime> existing = hitPartitionRepository.findRangePartitions().stream()
+                    .map(HitPartition::from)
+                    .collect(Collectors.toSet());
+
+            for (LocalDateTime start = interval.floor(from); start.isBefore(to); start = interval.next(start)) {
+                if (existing.contains(start)) {
+                    continue;
+                }
+
+                String name = interval.partitionName(start);
+                LocalDateTime partitionStart = start;
+                try {
+                    Long moved = transactionTemplate.execute(status ->
+                            hitPartitionRepository.createPartition(name, partitionStart, interval.next(partitionStart)));
+                    log.info("Created hits partition {}, moved {} hits from the default partition", name, moved);
+                } catch (RuntimeException e) {
+                    log.error("Failed to create hits partition {}", name, e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void dropPartitionsBefore(LocalDateTime cutoff) {
+        lock.lock();
+        try {
+            List<HitPartition> expired = hitPartitionRepository.findRangePartitions().stream()
+                    .filter(partition -> !partition.to().isAfter(cutoff))
+                    .toList();
+
+            for (HitPartition partition : expired) {
+                transactionTemplate.executeWithoutResult(status -> hitPartitionRepository.dropPartition(partition.name()));
+                log.info("Dropped hits partition {} past retention", partition.name());
+            }
+
+            int deleted = transactionTemplate.execute(status -> hitPartitionRepository.deleteDefaultBefore(cutoff));
+            if (deleted > 0) {
+                log.info("Deleted {} hits past retention from the default partition", deleted);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
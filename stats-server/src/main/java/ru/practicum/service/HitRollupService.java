@@ -0,0 +1,72 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.practicum.StatsDto;
+import ru.practicum.config.RollupProperties;
+import ru.practicum.model.BucketGranularity;
+import ru.practicum.model.Hit;
+import ru.practicum.model.BucketKey;
+import ru.practicum.projection.StatsProjection;
+import ru.practicum.repository.HitRepository;
+import ru.practicum.repository.HitRollupRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@RequiredArgsConstructor
+public class HitRollupService implements HitIngestListener {
+    private static final List<BucketGranularity> GRANULARITIES =
+            List.of(BucketGranularity.DAY, BucketGranularity.HOUR, BucketGranularity.MINUTE);
+
+    private final RollupProperties properties;
+    private final HitRollupRepository hitRollupRepository;
+    private final HitRepository hitRepository;
+    private final HitArchiveService hitArchiveService;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public void onHitsSaved(List<Hit> hits) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Map<BucketKey, Long> deltas = new TreeMap<>();
+        for (Hit hit : hits) {
+            for (BucketGranularity granularity : GRANULARITIES) {
+                BucketKey key = new BucketKey(granularity, granularity.floor(hit.getTimestamp()),
+                        hit.getApp(), hit.getUri());
+                deltas.merge(key, (long) hit.getWeight(), Long::sum);
+            }
+        }
+        hitRollupRepository.increment(deltas);
+    }
+
+    public List<StatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        BucketPlan plan = BucketPlan.of(start, end.plus(1, ChronoUnit.MICROS), GRANULARITIES);
+        StatsAccumulator accumulator = new StatsAccumulator();
+
+        for (BucketPlan.Segment segment : plan.buckets()) {
+            hitRollupRepository.sumHits(segment.granularity(), segment.from(), segment.to(), uris,
+                    row -> accumulator.add(row.app(), row.uri(), row.hits()));
+        }
+
+        for (BucketPlan.Segment segment : plan.raw()) {
+            hitArchiveService.forEachArchivedCount(segment.from(), segment.to().minus(1, ChronoUnit.MICROS), uris,
+                    accumulator::add);
+            List<StatsProjection> rows = uris.isEmpty()
+                    ? hitRepository.countHitsInRange(segment.from(), segment.to())
+                    : hitRepository.countHitsInRangeAndUris(segment.from(), segment.to(), uris);
+            rows.forEach(row -> accumulator.add(row.getApp(), row.getUri(), row.getHits()));
+        }
+
+        return accumulator.toStatsDtos();
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import ru.practicum.StatsDto;
+import ru.practicum.config.SamplingProperties;
+import ru.practicum.model.Hit;
+import ru.practicum.sketch.HyperLogLog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the hits of one in N ip addresses for apps and uris matched by a {@link SamplingProperties.Rule} and stores
+ * the kept hit with weight N, so summed weights stay an unbiased estimate of the real hit count. Because an address
+ * is either always kept or always dropped, distinct kept addresses times N estimate unique counts as well, see
+ * {@link #scaleUnique(List)}. The first matching rule wins; hits matched by no rule are always kept with weight 1.
+ */
+@Component
+public class HitSampler {
+    private static final String SAMPLING_SALT = "sample:";
+
+    private final SamplingProperties properties;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public HitSampler(SamplingProperties properties) {
+        for (int i = 0; i < properties.getRules().size(); i++) {
+            if (properties.getRules().get(i).getOneIn() < 1) {
+                throw new IllegalArgumentException("stats.sampling.rules[" + i + "].one-in should be positive");
+            }
+        }
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled() && !properties.getRules().isEmpty();
+    }
+
+    public List<Hit> sample(List<Hit> hits) {
+        if (!isEnabled()) {
+            return hits;
+        }
+
+        List<Hit> kept = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            if (sample(hit)) {
+                kept.add(hit);
+            }
+        }
+        return kept;
+    }
+
+    public boolean sample(Hit hit) {
+        if (!isEnabled()) {
+            return true;
+        }
+
+        int weight = weight(hit.getApp(), hit.getUri());
+        hit.setWeight(weight);
+        return weight == 1 || Long.remainderUnsigned(HyperLogLog.hash64(SAMPLING_SALT + hit.getIp()), weight) == 0;
+    }
+
+    public List<StatsDto> scaleUnique(List<StatsDto> stats) {
+        if (!isEnabled()) {
+            return stats;
+        }
+
+        StatsAccumulator accumulator = new StatsAccumulator();
+        stats.forEach(row -> accumulator.add(row.getApp(), row.getUri(),
+                (long) row.getHits() * weight(row.getApp(), row.getUri())));
+        return accumulator.toStatsDtos();
+    }
+
+    public boolean isSampled(List<String> uris) {
+        if (!isEnabled()) {
+            return false;
+        }
+
+        for (SamplingProperties.Rule rule : properties.getRules()) {
+            if (rule.getOneIn() == 1) {
+                continue;
+            }
+            if (uris.isEmpty() || rule.getUriPattern() == null) {
+                return true;
+            }
+            for (String uri : uris) {
+                if (matcher.match(rule.getUriPattern(), uri)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int weight(String app, String uri) {
+        for (SamplingProperties.Rule rule : properties.getRules()) {
+            if ((rule.getApp() == null || rule.getApp().equals(app))
+                    && (rule.getUriPattern() == null || matcher.match(rule.getUriPattern(), uri))) {
+                return rule.getOneIn();
+            }
+        }
+        return 1;
+    }
+}
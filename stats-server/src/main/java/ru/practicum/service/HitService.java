@@ -1,14 +1,32 @@
 package ru.practicum.service;
 
 
+import ru.practicum.CompactHitDto;
 import ru.practicum.HitDto;
+import ru.practicum.HitStatusDto;
 import ru.practicum.StatsDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface HitService {
     HitDto createHit(HitDto hitDto);
 
+    HitDto createHit(CompactHitDto compactHitDto);
+
+    List<HitStatusDto> createHits(List<HitDto> hitDtos);
+
     List<StatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
+
+    ApproximateStats getEstimatedStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
+
+    boolean isSampled(List<String> uris);
+
+    ApproximateStats getApproximateUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris);
+
+    void streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                     Consumer<StatsDto> consumer);
+
+    List<StatsDto> getTopStats(LocalDateTime start, LocalDateTime end, int k);
 }
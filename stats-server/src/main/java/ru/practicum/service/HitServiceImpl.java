@@ -1,20 +1,41 @@
 package ru.practicum.service;
 
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.CompactHitDto;
 import ru.practicum.HitDto;
+import ru.practicum.HitStatusDto;
 import ru.practicum.StatsDto;
+import ru.practicum.config.IngestProperties;
+import ru.practicum.config.TopProperties;
+import ru.practicum.exception.ServiceUnavailableException;
 import ru.practicum.exception.ValidationException;
 import ru.practicum.mapper.HitMapper;
 import ru.practicum.model.Hit;
+import ru.practicum.projection.HitIpProjection;
 import ru.practicum.projection.StatsProjection;
 import ru.practicum.repository.HitRepository;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -24,37 +45,351 @@ public class HitServiceImpl implements HitService {
 
     private final HitRepository hitRepository;
     private final HitMapper hitMapper;
+    private final HitWriteBehindWriter hitWriteBehindWriter;
+    private final HitIngestPipeline hitIngestPipeline;
+    private final HitLogService hitLogService;
+    private final HitRollupService hitRollupService;
+    private final HitSketchService hitSketchService;
+    private final HitWindowService hitWindowService;
+    private final HitTopService hitTopService;
+    private final HitArchiveService hitArchiveService;
+    private final HitStatsCache hitStatsCache;
+    private final HitParallelStatsService hitParallelStatsService;
+    private final HitSampler hitSampler;
+    private final StatsMetrics statsMetrics;
+    private final TopProperties topProperties;
+    private final IngestProperties ingestProperties;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public HitDto createHit(HitDto hitDto) {
-        Hit hitAfterMapper = hitMapper.fromDtoToHit(hitDto);
+        statsMetrics.recordReceived("json", 1);
+        return ingestHit(() -> {
+            if (hitLogService.isEnabled()) {
+                return appendHit(hitMapper.fromDtoToCompactDto(hitDto));
+            }
 
-        Hit hit = hitRepository.save(hitAfterMapper);
-        log.info("Hit created: ", hit);
+            return saveHit(hitMapper.fromDtoToHit(hitDto));
+        });
+    }
 
-        HitDto hitDtoAfterSave = hitMapper.fromHitToDto(hit);
-        return hitDtoAfterSave;
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public HitDto createHit(CompactHitDto compactHitDto) {
+        statsMetrics.recordReceived("binary", 1);
+        return ingestHit(() -> {
+            Set<ConstraintViolation<CompactHitDto>> violations = validator.validate(compactHitDto);
+            if (!violations.isEmpty()) {
+                throw new ValidationException(formatViolations(violations));
+            }
+
+            if (hitLogService.isEnabled()) {
+                compactHitDto.setIp(hitMapper.normalizeIp(compactHitDto.getIp()));
+                return appendHit(compactHitDto);
+            }
+
+            return saveHit(hitMapper.fromCompactDtoToHit(compactHitDto));
+        });
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<HitStatusDto> createHits(List<HitDto> hitDtos) {
+        statsMetrics.recordReceived("batch", hitDtos.size());
+        if (hitDtos.size() > ingestProperties.getMaxBatchSize()) {
+            throw new ValidationException("Batch size should not exceed " + ingestProperties.getMaxBatchSize());
+        }
+
+        List<HitStatusDto> statuses = new ArrayList<>(hitDtos.size());
+        List<Hit> hits = new ArrayList<>(hitDtos.size());
+        List<CompactHitDto> loggedHits = new ArrayList<>();
+
+        for (int i = 0; i < hitDtos.size(); i++) {
+            HitDto hitDto = hitDtos.get(i);
+            String error = validateHit(hitDto);
+            if (error != null) {
+                statuses.add(new HitStatusDto(i, HttpStatus.BAD_REQUEST.value(), error));
+                continue;
+            }
+
+            Hit hit = null;
+            try {
+                if (hitLogService.isEnabled()) {
+                    loggedHits.add(hitMapper.fromDtoToCompactDto(hitDto));
+                } else {
+                    hit = hitMapper.fromDtoToHit(hitDto);
+                }
+            } catch (DateTimeParseException e) {
+                statuses.add(new HitStatusDto(i, HttpStatus.BAD_REQUEST.value(), "timestamp: invalid format"));
+                continue;
+            } catch (ValidationException e) {
+                statuses.add(new HitStatusDto(i, HttpStatus.BAD_REQUEST.value(), e.getMessage()));
+                continue;
+            }
+
+            if (hit == null) {
+                statuses.add(new HitStatusDto(i, HttpStatus.CREATED.value(), null));
+                continue;
+            }
+
+            if (hitWriteBehindWriter.isEnabled() && !hitWriteBehindWriter.offer(hit)) {
+                statuses.add(new HitStatusDto(i, HttpStatus.SERVICE_UNAVAILABLE.value(),
+                        "Hit ingestion queue is full"));
+                continue;
+            }
+
+            if (!hitWriteBehindWriter.isEnabled()) {
+                hits.add(hit);
+            }
+            statuses.add(new HitStatusDto(i, HttpStatus.CREATED.value(), null));
+        }
+
+        if (!loggedHits.isEmpty()) {
+            hitLogService.append(loggedHits);
+        }
+        transactionTemplate.executeWithoutResult(status -> hitIngestPipeline.saveAll(hits));
+        log.info("Hits batch processed: {} received, {} written, {} logged", hitDtos.size(), hits.size(),
+                loggedHits.size());
+        recordBatch(statuses);
+
+        return statuses;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<StatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        return getEstimatedStats(start, end, uris, unique).stats();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ApproximateStats getEstimatedStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                              Boolean unique) {
+        if (start.isAfter(end)) {
+            throw new ValidationException("Start date should be before end date");
+        }
+
+        Timer.Sample sample = statsMetrics.startQuery();
+        StatsResult result = queryStats(start, end, uris, unique);
+        statsMetrics.recordQuery(sample, uris, unique, result.source(), result.stats().size());
+        List<StatsDto> stats = unique ? hitSampler.scaleUnique(result.stats()) : result.stats();
+        return new ApproximateStats(stats, result.relativeError());
+    }
+
+    @Override
+    public boolean isSampled(List<String> uris) {
+        return hitSampler.isSampled(uris);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                            Consumer<StatsDto> consumer) {
         if (start.isAfter(end)) {
             throw new ValidationException("Start date should be before end date");
         }
+        if (unique && hitSampler.isSampled(uris)) {
+            getEstimatedStats(start, end, uris, true).stats().forEach(consumer);
+            return;
+        }
 
-        List<StatsProjection> statsList = uris.isEmpty() ? hitRepository.findHitsByTimeRange(start, end, unique) :
-                hitRepository.findHitsByTimeRangeAndUris(start, end, uris, unique);
+        Optional<BucketStats> archivedStats = hitArchiveService.getStats(start, end, uris, unique);
+        if (archivedStats.isPresent()) {
+            archivedStats.get().toStatsDtos().forEach(consumer);
+            return;
+        }
+
+        long matched = statsMetrics.timeRepository("stream_hits_by_time_range", () -> {
+            try (Stream<StatsProjection> stats = uris.isEmpty() ? hitRepository.streamHitsByTimeRange(start, end, unique) :
+                    hitRepository.streamHitsByTimeRangeAndUris(start, end, uris, unique)) {
+                return stats.mapToLong(row -> {
+                    consumer.accept(hitMapper.fromProjectionToStatsDto(row));
+                    return row.getMatched();
+                }).sum();
+            }
+        });
+        statsMetrics.recordRowsRead(StatsMetrics.SOURCE_DB, matched);
+    }
+
+    @Override
+    public ApproximateStats getApproximateUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        if (!hitSketchService.isEnabled()) {
+            return getEstimatedStats(start, end, uris, true);
+        }
+        if (start.isAfter(end)) {
+            throw new ValidationException("Start date should be before end date");
+        }
+
+        return new ApproximateStats(hitSampler.scaleUnique(hitSketchService.getUniqueStats(start, end, uris)),
+                hitSketchService.relativeError());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<StatsDto> getTopStats(LocalDateTime start, LocalDateTime end, int k) {
+        if (start.isAfter(end)) {
+            throw new ValidationException("Start date should be before end date");
+        }
+        if (k < 1 || k > topProperties.getMaxK()) {
+            throw new ValidationException("k should be between 1 and " + topProperties.getMaxK());
+        }
+
+        Optional<List<StatsDto>> top = hitTopService.getTop(start, end, k);
+        if (top.isPresent()) {
+            return top.get();
+        }
+
+        List<StatsDto> stats = getStats(start, end, Collections.emptyList(), false);
+        return stats.subList(0, Math.min(k, stats.size()));
+    }
+
+    private StatsResult queryStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+        Optional<BucketStats> recentStats = hitWindowService.getStats(start, end, uris, unique);
+        if (recentStats.isPresent()) {
+            return new StatsResult(StatsMetrics.SOURCE_WINDOW, recentStats.get());
+        }
+
+        Optional<BucketStats> cachedStats = hitStatsCache.getStats(start, end, uris, unique,
+                (from, to) -> loadBucket(from, to, uris, unique));
+        if (cachedStats.isPresent()) {
+            return new StatsResult(StatsMetrics.SOURCE_CACHE, cachedStats.get());
+        }
+
+        Optional<BucketStats> parallelStats = hitParallelStatsService.getStats(start, end,
+                (from, to) -> loadBucket(from, to, uris, unique));
+        if (parallelStats.isPresent()) {
+            return new StatsResult(StatsMetrics.SOURCE_PARALLEL, parallelStats.get());
+        }
+
+        return loadStats(start, end, uris, unique);
+    }
+
+    private StatsResult loadStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+        if (hitRollupService.isEnabled() && !unique) {
+            return new StatsResult(StatsMetrics.SOURCE_ROLLUP, hitRollupService.getStats(start, end, uris));
+        }
+
+        Optional<BucketStats> archivedStats = hitArchiveService.getStats(start, end, uris, unique);
+        if (archivedStats.isPresent()) {
+            return new StatsResult(StatsMetrics.SOURCE_ARCHIVE, archivedStats.get());
+        }
+
+        List<StatsProjection> statsList = statsMetrics.timeRepository("hits_by_time_range", () -> uris.isEmpty()
+                ? hitRepository.findHitsByTimeRange(start, end, unique)
+                : hitRepository.findHitsByTimeRangeAndUris(start, end, uris, unique));
+        statsMetrics.recordRowsRead(StatsMetrics.SOURCE_DB,
+                statsList.stream().mapToLong(StatsProjection::getMatched).sum());
 
         List<StatsDto> statsDtos = statsList.stream()
-                .map(stats -> {
-                    StatsDto statsDto = new StatsDto();
-                    statsDto.setApp(stats.getApp());
-                    statsDto.setUri(stats.getUri());
-                    statsDto.setHits(Math.toIntExact(stats.getHits()));
-                    return statsDto;
-                })
+                .map(hitMapper::fromProjectionToStatsDto)
                 .collect(Collectors.toList());
 
-        return statsDtos;
+        return new StatsResult(StatsMetrics.SOURCE_DB, statsDtos);
+    }
+
+    private BucketStats loadBucket(LocalDateTime from, LocalDateTime to, List<String> uris, boolean unique) {
+        LocalDateTime end = to.minus(1, ChronoUnit.MICROS);
+        if (unique) {
+            return transactionTemplate.execute(status -> loadUniqueBucket(from, to, uris));
+        }
+
+        BucketStats stats = new BucketStats();
+        loadStats(from, end, uris, false).stats().forEach(row -> stats.addCount(row.getApp(), row.getUri(), row.getHits()));
+        return stats;
+    }
+
+    private BucketStats loadUniqueBucket(LocalDateTime from, LocalDateTime to, List<String> uris) {
+        BucketStats stats = new BucketStats();
+        hitArchiveService.forEachArchived(from, to.minus(1, ChronoUnit.MICROS), uris, stats::addIp);
+        return statsMetrics.timeRepository("distinct_ips_in_range", () -> {
+            try (Stream<HitIpProjection> rows = uris.isEmpty() ? hitRepository.streamDistinctIpsInRange(from, to) :
+                    hitRepository.streamDistinctIpsInRangeAndUris(from, to, uris)) {
+                rows.forEach(row -> stats.addIp(row.getApp(), row.getUri(), row.getIp()));
+            }
+            return stats;
+        });
+    }
+
+    private HitDto ingestHit(Supplier<HitDto> ingest) {
+        try {
+            HitDto hitDto = ingest.get();
+            statsMetrics.recordIngested(1, 0, 0);
+            return hitDto;
+        } catch (ServiceUnavailableException e) {
+            statsMetrics.recordIngested(0, 0, 1);
+            throw e;
+        } catch (ValidationException | DateTimeParseException e) {
+            statsMetrics.recordIngested(0, 1, 0);
+            throw e;
+        }
+    }
+
+    private void recordBatch(List<HitStatusDto> statuses) {
+        int accepted = 0;
+        int rejected = 0;
+        for (HitStatusDto status : statuses) {
+            if (status.getStatus() == HttpStatus.CREATED.value()) {
+                accepted++;
+            } else if (status.getStatus() == HttpStatus.BAD_REQUEST.value()) {
+                rejected++;
+            }
+        }
+        statsMetrics.recordIngested(accepted, rejected, statuses.size() - accepted - rejected);
+    }
+
+    private HitDto appendHit(CompactHitDto compactHitDto) {
+        hitLogService.append(List.of(compactHitDto));
+        return hitMapper.fromCompactDtoToDto(compactHitDto);
+    }
+
+    private HitDto saveHit(Hit hitAfterMapper) {
+        if (hitWriteBehindWriter.isEnabled()) {
+            if (!hitWriteBehindWriter.offer(hitAfterMapper)) {
+                throw new ServiceUnavailableException("Hit ingestion queue is full");
+            }
+            return hitMapper.fromHitToDto(hitAfterMapper);
+        }
+
+        if (!hitSampler.sample(hitAfterMapper)) {
+            return hitMapper.fromHitToDto(hitAfterMapper);
+        }
+
+        Hit hit = hitRepository.save(hitAfterMapper);
+        hitIngestPipeline.notifySaved(List.of(hit));
+        log.info("Hit created: ", hit);
+
+        HitDto hitDtoAfterSave = hitMapper.fromHitToDto(hit);
+        return hitDtoAfterSave;
+    }
+
+    private String validateHit(HitDto hitDto) {
+        if (hitDto == null) {
+            return "Malformed hit";
+        }
+        if (hitDto.getTimestamp() == null) {
+            return "timestamp: must not be null";
+        }
+
+        Set<ConstraintViolation<HitDto>> violations = validator.validate(hitDto);
+        return violations.isEmpty() ? null : formatViolations(violations);
+    }
+
+    private record StatsResult(String source, List<StatsDto> stats, double relativeError) {
+        StatsResult(String source, List<StatsDto> stats) {
+            this(source, stats, 0);
+        }
+
+        StatsResult(String source, BucketStats stats) {
+            this(source, stats.toStatsDtos(), stats.relativeError());
+        }
+    }
+
+    private String formatViolations(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
     }
 }
@@ -0,0 +1,209 @@
+package ru.practicum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.StatsDto;
+import ru.practicum.config.SketchProperties;
+import ru.practicum.model.BucketGranularity;
+import ru.practicum.model.BucketKey;
+import ru.practicum.model.Hit;
+import ru.practicum.projection.HitIpProjection;
+import ru.practicum.repository.HitRepository;
+import ru.practicum.repository.HitSketchRepository;
+import ru.practicum.sketch.HyperLogLog;
+import ru.practicum.utils.IpAddresses;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Service
+public class HitSketchService implements HitIngestListener {
+    private static final List<BucketGranularity> GRANULARITIES =
+            List.of(BucketGranularity.DAY, BucketGranularity.HOUR);
+    private static final int COMPACTION_BATCH = 1000;
+
+    private final SketchProperties properties;
+    private final HitSketchRepository hitSketchRepository;
+    private final HitRepository hitRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Map<BucketKey, HyperLogLog> pending = new ConcurrentHashMap<>();
+    private volatile Map<BucketKey, HyperLogLog> flushing = Map.of();
+
+    public HitSketchService(SketchProperties properties,
+                            HitSketchRepository hitSketchRepository,
+                            HitRepository hitRepository,
+                            TransactionTemplate transactionTemplate) {
+        this.properties = properties;
+        this.hitSketchRepository = hitSketchRepository;
+        this.hitRepository = hitRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public double relativeError() {
+        return HyperLogLog.relativeError(properties.getPrecision());
+    }
+
+    @Override
+    public void onHitsSaved(List<Hit> hits) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        swapLock.readLock().lock();
+        try {
+            for (Hit hit : hits) {
+                for (BucketGranularity granularity : GRANULARITIES) {
+                    BucketKey key = new BucketKey(granularity, granularity.floor(hit.getTimestamp()),
+                            hit.getApp(), hit.getUri());
+                    pending.compute(key, (k, sketch) -> {
+                        HyperLogLog updated = sketch != null ? sketch : new HyperLogLog(properties.getPrecision());
+                        updated.add(hit.getIp());
+                        return updated;
+                    });
+                }
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public List<StatsDto> getUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        BucketPlan plan = BucketPlan.of(start, end.plus(1, ChronoUnit.MICROS), GRANULARITIES);
+        Map<StatsKey, HyperLogLog> merged = new HashMap<>();
+
+        swapLock.readLock().lock();
+        try {
+            mergeInMemory(pending, plan, uris, merged);
+            mergeInMemory(flushing, plan, uris, merged);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+
+        for (BucketPlan.Segment segment : plan.buckets()) {
+            hitSketchRepository.forEachSketch(segment.granularity(), segment.from(), segment.to(), uris,
+                    (key, sketch) -> sketchFor(merged, key.app(), key.uri()).merge(sketch));
+        }
+
+        for (BucketPlan.Segment segment : plan.raw()) {
+            List<HitIpProjection> rows = uris.isEmpty()
+                    ? hitRepository.findDistinctIpsInRange(segment.from(), segment.to())
+                    : hitRepository.findDistinctIpsInRangeAndUris(segment.from(), segment.to(), uris);
+            rows.forEach(row -> sketchFor(merged, row.getApp(), row.getUri()).add(IpAddresses.toString(row.getIp())));
+        }
+
+        StatsAccumulator accumulator = new StatsAccumulator();
+        merged.forEach((key, sketch) -> accumulator.add(key.app(), key.uri(), sketch.estimate()));
+        return accumulator.toStatsDtos();
+    }
+
+    @Scheduled(fixedDelayString = "${stats.sketch.flush-interval:PT10S}")
+    public void flush() {
+        lock.lock();
+        try {
+            if (!isEnabled()) {
+                return;
+            }
+
+            swapLock.writeLock().lock();
+            try {
+                flushing = pending;
+                pending = new ConcurrentHashMap<>();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+
+            if (flushing.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> hitSketchRepository.insertAll(flushing));
+                log.debug("Flushed {} hit sketches", flushing.size());
+            } catch (RuntimeException e) {
+                log.error("Failed to flush {} hit sketches, keeping them for the next attempt", flushing.size(), e);
+                swapLock.readLock().lock();
+                try {
+                    flushing.forEach((key, sketch) -> pending.merge(key, sketch, (current, failed) -> {
+                        current.merge(failed);
+                        return current;
+                    }));
+                } finally {
+                    swapLock.readLock().unlock();
+                }
+            }
+
+            swapLock.writeLock().lock();
+            try {
+                flushing = Map.of();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.sketch.compaction-interval:PT10M}")
+    public void compact() {
+        lock.lock();
+        try {
+            if (!isEnabled()) {
+                return;
+            }
+
+            List<BucketKey> keys = hitSketchRepository.findFragmentedKeys(COMPACTION_BATCH);
+            for (BucketKey key : keys) {
+                transactionTemplate.executeWithoutResult(status -> hitSketchRepository.compact(key));
+            }
+            if (!keys.isEmpty()) {
+                log.debug("Compacted hit sketches for {} buckets", keys.size());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void mergeInMemory(Map<BucketKey, HyperLogLog> sketches, BucketPlan plan, List<String> uris,
+                               Map<StatsKey, HyperLogLog> merged) {
+        sketches.forEach((key, sketch) -> {
+            if ((uris.isEmpty() || uris.contains(key.uri())) && isCovered(key, plan)) {
+                sketchFor(merged, key.app(), key.uri()).merge(sketch);
+            }
+        });
+    }
+
+    private boolean isCovered(BucketKey key, BucketPlan plan) {
+        for (BucketPlan.Segment segment : plan.buckets()) {
+            if (segment.granularity() == key.granularity()
+                    && !key.bucketStart().isBefore(segment.from())
+                    && key.bucketStart().isBefore(segment.to())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private HyperLogLog sketchFor(Map<StatsKey, HyperLogLog> merged, String app, String uri) {
+        return merged.computeIfAbsent(new StatsKey(app, uri), key -> new HyperLogLog(properties.getPrecision()));
+    }
+
+    private record StatsKey(String app, String uri) {
+    }
+}
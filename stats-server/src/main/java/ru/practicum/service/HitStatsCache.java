@@ -0,0 +1,155 @@
+package ru.practicum.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.config.StatsCacheProperties;
+import ru.practicum.model.BucketGranularity;
+import ru.practicum.model.Hit;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+public class HitStatsCache implements HitIngestListener {
+    private static final List<BucketGranularity> GRANULARITIES =
+            List.of(BucketGranularity.DAY, BucketGranularity.HOUR);
+
+    private final StatsCacheProperties properties;
+    private final HitParallelStatsService hitParallelStatsService;
+    private final Clock clock;
+    private final Cache<CacheKey, BucketStats> cache;
+
+    @Autowired
+    public HitStatsCache(StatsCacheProperties properties, HitParallelStatsService hitParallelStatsService,
+                         MeterRegistry meterRegistry) {
+        this(properties, hitParallelStatsService, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    public HitStatsCache(StatsCacheProperties properties, HitParallelStatsService hitParallelStatsService,
+                         MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.hitParallelStatsService = hitParallelStatsService;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxWeight())
+                .weigher((CacheKey key, BucketStats stats) -> stats.weight())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "stats.buckets");
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Optional<BucketStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                             BucketLoader loader) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        LocalDateTime to = end.plus(1, ChronoUnit.MICROS);
+        LocalDateTime closedUntil = LocalDateTime.now(clock).minus(properties.getClosedAfter());
+        LocalDateTime cachedTo = to.isBefore(closedUntil) ? to : closedUntil;
+        if (!start.isBefore(cachedTo)) {
+            return Optional.empty();
+        }
+
+        BucketPlan plan = BucketPlan.of(start, cachedTo, GRANULARITIES);
+        List<CacheKey> keys = new ArrayList<>();
+        List<String> sortedUris = uris.stream().sorted().distinct().toList();
+        for (BucketPlan.Segment segment : plan.buckets()) {
+            BucketGranularity granularity = segment.granularity();
+            for (LocalDateTime bucket = segment.from(); bucket.isBefore(segment.to()); bucket = granularity.next(bucket)) {
+                keys.add(new CacheKey(granularity, bucket, sortedUris, unique));
+            }
+        }
+        if (keys.isEmpty() || keys.size() > properties.getMaxBuckets()) {
+            return Optional.empty();
+        }
+
+        BucketStats result = new BucketStats();
+        List<CacheKey> misses = new ArrayList<>();
+        List<BucketPlan.Segment> segments = new ArrayList<>();
+        for (CacheKey key : keys) {
+            BucketStats bucket = cache.getIfPresent(key);
+            if (bucket != null) {
+                result.merge(bucket);
+                continue;
+            }
+            misses.add(key);
+            segments.add(new BucketPlan.Segment(key.granularity(), key.bucketStart(),
+                    key.granularity().next(key.bucketStart())));
+        }
+        segments.addAll(plan.raw());
+        if (cachedTo.isBefore(to)) {
+            segments.add(new BucketPlan.Segment(null, cachedTo, to));
+        }
+
+        List<BucketStats> loaded = hitParallelStatsService.loadAll(segments, loader);
+        for (int i = 0; i < loaded.size(); i++) {
+            if (i < misses.size()) {
+                cache.put(misses.get(i), loaded.get(i));
+            }
+            result.merge(loaded.get(i));
+        }
+
+        return Optional.of(result);
+    }
+
+    /**
+     * Evicts cached buckets that received late hits. Inside a transaction the eviction waits until commit,
+     * so a concurrent query cannot reload a bucket before the hits are visible and cache it stale.
+     */
+    @Override
+    public void onHitsSaved(List<Hit> hits) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        Set<LocalDateTime> lateHours = new HashSet<>();
+        for (Hit hit : hits) {
+            LocalDateTime hour = BucketGranularity.HOUR.floor(hit.getTimestamp());
+            if (!BucketGranularity.HOUR.next(hour).isAfter(now)) {
+                lateHours.add(hour);
+            }
+        }
+        if (lateHours.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(lateHours);
+                }
+            });
+        } else {
+            invalidate(lateHours);
+        }
+    }
+
+    private void invalidate(Set<LocalDateTime> lateHours) {
+        cache.asMap().keySet().removeIf(key -> lateHours.stream().anyMatch(hour ->
+                !hour.isBefore(key.bucketStart()) && hour.isBefore(key.granularity().next(key.bucketStart()))));
+    }
+
+    private record CacheKey(BucketGranularity granularity, LocalDateTime bucketStart, List<String> uris,
+                            boolean unique) {
+    }
+}
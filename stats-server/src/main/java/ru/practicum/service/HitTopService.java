@@ -0,0 +1,101 @@
+package ru.practicum.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.StatsDto;
+import ru.practicum.config.TopProperties;
+import ru.practicum.model.BucketGranularity;
+import ru.practicum.model.Hit;
+import ru.practicum.sketch.SpaceSaving;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+@Service
+public class HitTopService implements HitIngestListener {
+    private static final BucketGranularity GRANULARITY = BucketGranularity.HOUR;
+
+    private final TopProperties properties;
+    private final Clock clock;
+    private final LocalDateTime coveredFrom;
+    private final ConcurrentNavigableMap<LocalDateTime, SpaceSaving<TopKey>> buckets = new ConcurrentSkipListMap<>();
+
+    @Autowired
+    public HitTopService(TopProperties properties) {
+        this(properties, Clock.systemDefaultZone());
+    }
+
+    public HitTopService(TopProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.coveredFrom = GRANULARITY.ceil(LocalDateTime.now(clock));
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public void onHitsSaved(List<Hit> hits) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        LocalDateTime oldest = oldestBucket();
+        for (Hit hit : hits) {
+            LocalDateTime bucketStart = GRANULARITY.floor(hit.getTimestamp());
+            if (bucketStart.isBefore(oldest)) {
+                continue;
+            }
+
+            SpaceSaving<TopKey> summary = buckets.computeIfAbsent(bucketStart,
+                    key -> new SpaceSaving<>(properties.getCapacity()));
+            synchronized (summary) {
+                summary.add(new TopKey(hit.getApp(), hit.getUri()), hit.getWeight());
+            }
+        }
+    }
+
+    /**
+     * Answers from the hourly summaries only when the range starts on an hour and ends on the last second of an
+     * hour, and every hour in it has been summarised since startup and is still retained.
+     */
+    public Optional<List<StatsDto>> getTop(LocalDateTime start, LocalDateTime end, int k) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        LocalDateTime to = end.plusSeconds(1);
+        if (!GRANULARITY.floor(start).equals(start) || !GRANULARITY.floor(to).equals(to)
+                || start.isBefore(coveredFrom) || start.isBefore(oldestBucket())) {
+            return Optional.empty();
+        }
+
+        StatsAccumulator accumulator = new StatsAccumulator();
+        buckets.subMap(start, true, to, false).values().forEach(summary -> {
+            synchronized (summary) {
+                summary.forEach((key, count) -> accumulator.add(key.app(), key.uri(), count));
+            }
+        });
+
+        List<StatsDto> stats = accumulator.toStatsDtos();
+        return Optional.of(stats.subList(0, Math.min(k, stats.size())));
+    }
+
+    @Scheduled(fixedDelayString = "PT1H")
+    public void evictExpired() {
+        buckets.headMap(oldestBucket()).clear();
+    }
+
+    private LocalDateTime oldestBucket() {
+        return GRANULARITY.floor(LocalDateTime.now(clock).minus(properties.getRetention()));
+    }
+
+    private record TopKey(String app, String uri) {
+    }
+}
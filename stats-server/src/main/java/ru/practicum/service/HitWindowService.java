@@ -0,0 +1,230 @@
+package ru.practicum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.config.WindowProperties;
+import ru.practicum.model.Hit;
+import ru.practicum.sketch.HyperLogLog;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+public class HitWindowService implements HitIngestListener {
+    private static final int SLOT_SECONDS = 60;
+
+    private final WindowProperties properties;
+    private final Clock clock;
+    private final int slotCount;
+    private final long coveredFromSlot;
+    private final Map<String, Map<String, UriWindow>> windowsByUri = new ConcurrentHashMap<>();
+
+    private volatile long uncoveredFromSecond = Long.MAX_VALUE;
+
+    @Autowired
+    public HitWindowService(WindowProperties properties) {
+        this(properties, Clock.systemDefaultZone());
+    }
+
+    public HitWindowService(WindowProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.slotCount = Math.toIntExact(Math.max(1, properties.getSpan().toSeconds() / SLOT_SECONDS));
+        this.coveredFromSlot = currentSlot() + 1;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public void onHitsSaved(List<Hit> hits) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        long currentSlot = currentSlot();
+        for (Hit hit : hits) {
+            long second = epochSecond(hit.getTimestamp());
+            long slot = slotOf(second);
+            if (slot > currentSlot) {
+                markUncovered(second);
+                continue;
+            }
+            if (slot <= currentSlot - slotCount) {
+                continue;
+            }
+
+            windowsByUri.compute(hit.getUri(), (uri, windows) -> {
+                Map<String, UriWindow> appWindows = windows != null ? windows : new ConcurrentHashMap<>();
+                appWindows.computeIfAbsent(hit.getApp(), app -> new UriWindow(slotCount))
+                        .add(slot, second, hit.getIp(), hit.getWeight());
+                return appWindows;
+            });
+        }
+    }
+
+    public Optional<BucketStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                             boolean unique) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        long startSecond = epochSecond(start);
+        long endSecond = epochSecond(end);
+        long startSlot = slotOf(startSecond);
+        long oldestSlot = Math.max(coveredFromSlot, currentSlot() - slotCount + 1);
+        if (startSlot < oldestSlot || endSecond >= uncoveredFromSecond) {
+            return Optional.empty();
+        }
+
+        long endSlot = slotOf(endSecond);
+        BucketStats stats = new BucketStats();
+        Iterable<String> matchedUris = uris.isEmpty() ? windowsByUri.keySet() : new HashSet<>(uris);
+        for (String uri : matchedUris) {
+            Map<String, UriWindow> appWindows = windowsByUri.get(uri);
+            if (appWindows == null) {
+                continue;
+            }
+
+            for (Map.Entry<String, UriWindow> entry : appWindows.entrySet()) {
+                List<Slot> slots = entry.getValue().matchingSlots(startSlot, startSecond, endSlot, endSecond, unique);
+                if (slots == null) {
+                    return Optional.empty();
+                }
+                for (Slot slot : slots) {
+                    if (unique) {
+                        stats.addSketch(entry.getKey(), uri, slot.sketch);
+                    } else {
+                        stats.addCount(entry.getKey(), uri, slot.hits);
+                    }
+                }
+            }
+        }
+        return Optional.of(stats);
+    }
+
+    @Scheduled(fixedDelayString = "PT1M")
+    public void evictExpired() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        long oldestSlot = currentSlot() - slotCount + 1;
+        for (String uri : windowsByUri.keySet()) {
+            windowsByUri.computeIfPresent(uri, (key, appWindows) -> {
+                appWindows.values().removeIf(window -> window.isExpired(oldestSlot));
+                return appWindows.isEmpty() ? null : appWindows;
+            });
+        }
+    }
+
+    private synchronized void markUncovered(long second) {
+        if (second < uncoveredFromSecond) {
+            uncoveredFromSecond = second;
+            log.warn("Hit with a future timestamp received, window stats after {} will be read from the database",
+                    LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC));
+        }
+    }
+
+    private long currentSlot() {
+        return slotOf(epochSecond(LocalDateTime.now(clock)));
+    }
+
+    private static long epochSecond(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long slotOf(long epochSecond) {
+        return Math.floorDiv(epochSecond, SLOT_SECONDS);
+    }
+
+    private static class UriWindow {
+        private final Slot[] slots;
+
+        UriWindow(int slotCount) {
+            this.slots = new Slot[slotCount];
+        }
+
+        synchronized void add(long slotIndex, long second, String ip, int weight) {
+            int position = (int) Math.floorMod(slotIndex, (long) slots.length);
+            Slot slot = slots[position];
+            if (slot == null || slot.index < slotIndex) {
+                slot = new Slot(slotIndex);
+                slots[position] = slot;
+            } else if (slot.index > slotIndex) {
+                return;
+            }
+            slot.add(second, ip, weight);
+        }
+
+        synchronized List<Slot> matchingSlots(long startSlot, long startSecond, long endSlot, long endSecond,
+                                        boolean unique) {
+            List<Slot> matched = new ArrayList<>();
+            for (Slot slot : slots) {
+                if (slot == null || slot.index < startSlot || slot.index > endSlot) {
+                    continue;
+                }
+                if (slot.maxSecond < startSecond || slot.minSecond > endSecond) {
+                    continue;
+                }
+                if (slot.minSecond < startSecond || slot.maxSecond > endSecond) {
+                    return null;
+                }
+                matched.add(slot.snapshot(unique));
+            }
+            return matched;
+        }
+
+        synchronized boolean isExpired(long oldestSlot) {
+            for (Slot slot : slots) {
+                if (slot != null && slot.index >= oldestSlot) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class Slot {
+        private final long index;
+        private final HyperLogLog sketch;
+        private long hits;
+        private long minSecond = Long.MAX_VALUE;
+        private long maxSecond = Long.MIN_VALUE;
+
+        Slot(long index) {
+            this(index, new HyperLogLog(BucketStats.SKETCH_PRECISION));
+        }
+
+        private Slot(long index, HyperLogLog sketch) {
+            this.index = index;
+            this.sketch = sketch;
+        }
+
+        void add(long second, String ip, int weight) {
+            hits += weight;
+            sketch.add(ip);
+            minSecond = Math.min(minSecond, second);
+            maxSecond = Math.max(maxSecond, second);
+        }
+
+        Slot snapshot(boolean withSketch) {
+            Slot snapshot = new Slot(index, withSketch ? sketch.copy() : null);
+            snapshot.hits = hits;
+            snapshot.minSecond = minSecond;
+            snapshot.maxSecond = maxSecond;
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.config.IngestMode;
+import ru.practicum.config.IngestProperties;
+import ru.practicum.model.Hit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class HitWriteBehindWriter implements SmartLifecycle {
+    private final IngestProperties properties;
+    private final HitIngestPipeline hitIngestPipeline;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Hit> queue;
+    private final Timer flushTimer;
+    private final Counter flushedCounter;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public HitWriteBehindWriter(IngestProperties properties,
+                                HitIngestPipeline hitIngestPipeline,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hitIngestPipeline = hitIngestPipeline;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        Gauge.builder("stats.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Hits waiting to be written to the database")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("stats.ingest.flush")
+                .description("Latency of write-behind batch flushes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("stats.ingest.flushed")
+                .description("Hits written by the write-behind writer")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("stats.ingest.dropped")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("stats.ingest.dropped")
+                .tag("reason", "flush_failed")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.getMode() == IngestMode.WRITE_BEHIND;
+    }
+
+    public boolean offer(Hit hit) {
+        if (!running) {
+            return false;
+        }
+
+        boolean accepted = queue.offer(hit);
+        if (!accepted) {
+            rejectedCounter.increment();
+        }
+        return accepted;
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled() || running) {
+            return;
+        }
+
+        running = true;
+        worker = new Thread(this::drainLoop, "hit-write-behind");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Write-behind hit writer started: capacity {}, flush size {}, flush interval {}",
+                properties.getQueueCapacity(), properties.getFlushSize(), properties.getFlushInterval());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Write-behind hit writer stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drainLoop() {
+        int flushSize = properties.getFlushSize();
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        List<Hit> batch = new ArrayList<>(flushSize);
+        long deadline = System.nanoTime() + intervalNanos;
+
+        while (running) {
+            try {
+                long remaining = deadline - System.nanoTime();
+                Hit hit = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                if (hit != null) {
+                    batch.add(hit);
+                    queue.drainTo(batch, flushSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            if (batch.size() >= flushSize || System.nanoTime() >= deadline) {
+                flush(batch);
+                deadline = System.nanoTime() + intervalNanos;
+            }
+        }
+
+        Thread.interrupted();
+        do {
+            queue.drainTo(batch, flushSize - batch.size());
+            flush(batch);
+        } while (!queue.isEmpty());
+    }
+
+    private void flush(List<Hit> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status ->
+                    hitIngestPipeline.saveAll(batch)));
+            flushedCounter.increment(batch.size());
+        } catch (RuntimeException e) {
+            failedCounter.increment(batch.size());
+            log.error("Failed to flush {} hits", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+}
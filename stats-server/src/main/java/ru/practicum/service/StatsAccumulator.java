@@ -0,0 +1,32 @@
+package ru.practicum.service;
+
+import ru.practicum.StatsDto;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StatsAccumulator {
+    private static final Comparator<StatsDto> BY_HITS_DESC = Comparator.comparing(StatsDto::getHits).reversed()
+            .thenComparing(StatsDto::getApp)
+            .thenComparing(StatsDto::getUri);
+
+    private final Map<StatsKey, Long> hits = new HashMap<>();
+
+    public void add(String app, String uri, long count) {
+        hits.merge(new StatsKey(app, uri), count, Long::sum);
+    }
+
+    public List<StatsDto> toStatsDtos() {
+        return hits.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(entry -> new StatsDto(entry.getKey().app(), entry.getKey().uri(),
+                        Math.toIntExact(entry.getValue())))
+                .sorted(BY_HITS_DESC)
+                .toList();
+    }
+
+    private record StatsKey(String app, String uri) {
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+@Component
+public class StatsMetrics {
+    public static final String SOURCE_WINDOW = "window";
+    public static final String SOURCE_CACHE = "cache";
+    public static final String SOURCE_PARALLEL = "parallel";
+    public static final String SOURCE_ROLLUP = "rollup";
+    public static final String SOURCE_ARCHIVE = "archive";
+    public static final String SOURCE_DB = "db";
+
+    private final MeterRegistry meterRegistry;
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter unavailableCounter;
+
+    public StatsMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.acceptedCounter = ingestedCounter("accepted");
+        this.rejectedCounter = ingestedCounter("rejected");
+        this.unavailableCounter = ingestedCounter("unavailable");
+    }
+
+    public void recordReceived(String format, int hits) {
+        DistributionSummary.builder("stats.hits.request.size")
+                .description("Hits per ingest request")
+                .tag("format", format)
+                .register(meterRegistry)
+                .record(hits);
+    }
+
+    public void recordIngested(int accepted, int rejected, int unavailable) {
+        acceptedCounter.increment(accepted);
+        rejectedCounter.increment(rejected);
+        unavailableCounter.increment(unavailable);
+    }
+
+    public Timer.Sample startQuery() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void recordQuery(Timer.Sample sample, List<String> uris, boolean unique, String source, int resultSize) {
+        String filtered = String.valueOf(!uris.isEmpty());
+        String distinct = String.valueOf(unique);
+        sample.stop(Timer.builder("stats.query")
+                .description("Latency of stats queries by shape and serving source")
+                .tag("uris", filtered)
+                .tag("unique", distinct)
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        DistributionSummary.builder("stats.query.result.size")
+                .description("Rows returned by stats queries")
+                .tag("uris", filtered)
+                .tag("unique", distinct)
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(resultSize);
+    }
+
+    public void recordRowsRead(String source, long rows) {
+        DistributionSummary.builder("stats.query.rows.read")
+                .description("Hit rows matched and scanned by the storage query behind a stats lookup")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(rows);
+    }
+
+    public <T> T timeRepository(String query, Supplier<T> call) {
+        return Timer.builder("stats.repository.query")
+                .description("Latency of hit repository queries behind stats lookups, including reading streamed rows")
+                .tag("query", query)
+                .register(meterRegistry)
+                .record(call);
+    }
+
+    private Counter ingestedCounter(String status) {
+        return Counter.builder("stats.hits.ingested")
+                .description("Hits processed by the ingest endpoints")
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,248 @@
+package ru.practicum.sketch;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch that starts sparse: until it holds {@code 2^precision / 8} distinct hashes it keeps them
+ * in a sorted array and counts exactly, which keeps the common single-digit cardinalities at a few bytes
+ * instead of a full register array. Past that it switches to the dense {@code 2^precision} byte registers.
+ * Serialized sparse sketches store the hashes as delta-encoded varints behind a flagged precision byte.
+ */
+public class HyperLogLog {
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 16;
+    private static final int SPARSE_FLAG = 0x40;
+
+    private final int precision;
+    private byte[] registers;
+    private long[] hashes;
+    private int size;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision should be between " + MIN_PRECISION + " and " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.hashes = new long[4];
+    }
+
+    private HyperLogLog(int precision, byte[] registers, long[] hashes, int size) {
+        this.precision = precision;
+        this.registers = registers;
+        this.hashes = hashes;
+        this.size = size;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if ((bytes[0] & SPARSE_FLAG) != 0) {
+            return fromSparseBytes(bytes);
+        }
+
+        int precision = bytes[0];
+        if (bytes.length != (1 << precision) + 1) {
+            throw new IllegalArgumentException("Serialized sketch has unexpected length " + bytes.length);
+        }
+        return new HyperLogLog(precision, Arrays.copyOfRange(bytes, 1, bytes.length), null, 0);
+    }
+
+    public static double relativeError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    public byte[] toBytes() {
+        if (registers != null) {
+            byte[] bytes = new byte[registers.length + 1];
+            bytes[0] = (byte) precision;
+            System.arraycopy(registers, 0, bytes, 1, registers.length);
+            return bytes;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + size * Long.BYTES);
+        out.write(precision | SPARSE_FLAG);
+        writeVarLong(out, size);
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            writeVarLong(out, hashes[i] - previous);
+            previous = hashes[i];
+        }
+        return out.toByteArray();
+    }
+
+    public void add(String value) {
+        addHash(hash64(value));
+    }
+
+    public void addHash(long hash) {
+        if (registers != null) {
+            addRegister(hash);
+            return;
+        }
+
+        int index = Arrays.binarySearch(hashes, 0, size, hash);
+        if (index >= 0) {
+            return;
+        }
+        int insertion = -index - 1;
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        System.arraycopy(hashes, insertion, hashes, insertion + 1, size - insertion);
+        hashes[insertion] = hash;
+        size++;
+        if (size > sparseLimit()) {
+            toDense();
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with precision " + precision +
+                    " and " + other.precision);
+        }
+
+        if (other.registers == null) {
+            for (int i = 0; i < other.size; i++) {
+                addHash(other.hashes[i]);
+            }
+            return;
+        }
+
+        if (registers == null) {
+            toDense();
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public HyperLogLog copy() {
+        return registers != null
+                ? new HyperLogLog(precision, registers.clone(), null, 0)
+                : new HyperLogLog(precision, null, Arrays.copyOf(hashes, Math.max(size, 1)), size);
+    }
+
+    public long estimate() {
+        if (registers == null) {
+            return size;
+        }
+
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isExact() {
+        return registers == null;
+    }
+
+    public int sizeInBytes() {
+        return registers != null ? registers.length : size * Long.BYTES;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private int sparseLimit() {
+        return (1 << precision) / 8;
+    }
+
+    private void toDense() {
+        registers = new byte[1 << precision];
+        for (int i = 0; i < size; i++) {
+            addRegister(hashes[i]);
+        }
+        hashes = null;
+        size = 0;
+    }
+
+    private void addRegister(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    private static HyperLogLog fromSparseBytes(byte[] bytes) {
+        int precision = bytes[0] & ~SPARSE_FLAG;
+        int[] position = {1};
+        int size = Math.toIntExact(readVarLong(bytes, position));
+        if (size > (1 << precision) / 8) {
+            throw new IllegalArgumentException("Serialized sparse sketch holds too many hashes: " + size);
+        }
+
+        long[] hashes = new long[Math.max(size, 1)];
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            previous += readVarLong(bytes, position);
+            hashes[i] = previous;
+        }
+        if (position[0] != bytes.length) {
+            throw new IllegalArgumentException("Serialized sketch has unexpected length " + bytes.length);
+        }
+        return new HyperLogLog(precision, null, hashes, size);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= bytes.length) {
+                throw new IllegalArgumentException("Serialized sketch is truncated");
+            }
+            int b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in serialized sketch");
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+}
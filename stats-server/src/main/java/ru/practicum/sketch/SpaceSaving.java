@@ -0,0 +1,77 @@
+package ru.practicum.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ObjLongConsumer;
+
+public class SpaceSaving<T> {
+    private final int capacity;
+    private final Map<T, Long> counts = new HashMap<>();
+    private final TreeMap<Long, Set<T>> itemsByCount = new TreeMap<>();
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity should be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public void add(T item) {
+        add(item, 1);
+    }
+
+    public void add(T item, long count) {
+        Long current = counts.get(item);
+        if (current != null) {
+            move(item, current, current + count);
+            return;
+        }
+
+        if (counts.size() < capacity) {
+            counts.put(item, count);
+            itemsByCount.computeIfAbsent(count, key -> new LinkedHashSet<>()).add(item);
+            return;
+        }
+
+        Map.Entry<Long, Set<T>> min = itemsByCount.firstEntry();
+        T evicted = min.getValue().iterator().next();
+        remove(evicted, min.getKey());
+        counts.remove(evicted);
+        counts.put(item, min.getKey() + count);
+        itemsByCount.computeIfAbsent(min.getKey() + count, key -> new LinkedHashSet<>()).add(item);
+    }
+
+    public void forEach(ObjLongConsumer<T> consumer) {
+        counts.forEach(consumer::accept);
+    }
+
+    public List<Map.Entry<T, Long>> top(int k) {
+        List<Map.Entry<T, Long>> top = new ArrayList<>(counts.entrySet());
+        top.sort(Map.Entry.<T, Long>comparingByValue(Comparator.reverseOrder()));
+        return top.subList(0, Math.min(k, top.size()));
+    }
+
+    public int size() {
+        return counts.size();
+    }
+
+    private void move(T item, long from, long to) {
+        remove(item, from);
+        counts.put(item, to);
+        itemsByCount.computeIfAbsent(to, key -> new LinkedHashSet<>()).add(item);
+    }
+
+    private void remove(T item, long count) {
+        Set<T> items = itemsByCount.get(count);
+        items.remove(item);
+        if (items.isEmpty()) {
+            itemsByCount.remove(count);
+        }
+    }
+}
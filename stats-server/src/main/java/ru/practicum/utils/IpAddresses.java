@@ -0,0 +1,32 @@
+package ru.practicum.utils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.regex.Pattern;
+
+public class IpAddresses {
+    private static final Pattern IPV4_LITERAL = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    private IpAddresses() {
+    }
+
+    public static byte[] toBytes(String ip) {
+        if (ip == null || !(IPV4_LITERAL.matcher(ip).matches() || ip.indexOf(':') >= 0)) {
+            throw new IllegalArgumentException("Not an IP address literal: " + ip);
+        }
+
+        try {
+            return InetAddress.getByName(ip).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Not an IP address literal: " + ip, e);
+        }
+    }
+
+    public static String toString(byte[] address) {
+        try {
+            return InetAddress.getByAddress(address).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Invalid IP address length: " + address.length, e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+DROP TABLE IF EXISTS hits CASCADE;
+
+CREATE TABLE IF NOT EXISTS hits (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  app_id INT NOT NULL,
+  uri_id INT NOT NULL,
+  ip VARBINARY(16) NOT NULL,
+  timestamp TIMESTAMP NOT NULL,
+  weight INT DEFAULT 1 NOT NULL,
+  PRIMARY KEY (id)
+);
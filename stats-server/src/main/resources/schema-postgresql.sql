@@ -0,0 +1,15 @@
+DROP TABLE IF EXISTS hits CASCADE;
+
+CREATE TABLE IF NOT EXISTS hits (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  app_id INT NOT NULL,
+  uri_id INT NOT NULL,
+  ip BYTEA NOT NULL,
+  timestamp TIMESTAMP NOT NULL,
+  weight INT DEFAULT 1 NOT NULL,
+  PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE TABLE IF NOT EXISTS hits_default PARTITION OF hits DEFAULT;
+
+CREATE INDEX IF NOT EXISTS hits_timestamp_uri_idx ON hits (timestamp, uri_id);
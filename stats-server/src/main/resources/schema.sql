@@ -1,10 +1,41 @@
-DROP TABLE IF EXISTS hits CASCADE;
+DROP TABLE IF EXISTS hit_apps CASCADE;
+DROP TABLE IF EXISTS hit_uris CASCADE;
+DROP TABLE IF EXISTS hit_rollups CASCADE;
+DROP TABLE IF EXISTS hit_sketches CASCADE;
 
-CREATE TABLE IF NOT EXISTS hits (
+CREATE TABLE IF NOT EXISTS hit_apps (
+  id INT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT hit_apps_name_key UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS hit_uris (
+  id INT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  name VARCHAR(255) NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT hit_uris_name_key UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS hit_rollups (
+  granularity VARCHAR(10) NOT NULL,
+  bucket_start TIMESTAMP NOT NULL,
+  app VARCHAR(255) NOT NULL,
+  uri VARCHAR(255) NOT NULL,
+  hits BIGINT NOT NULL,
+  PRIMARY KEY (granularity, bucket_start, app, uri)
+);
+
+CREATE INDEX IF NOT EXISTS hit_rollups_uri_idx ON hit_rollups (granularity, uri, bucket_start);
+
+CREATE TABLE IF NOT EXISTS hit_sketches (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  granularity VARCHAR(10) NOT NULL,
+  bucket_start TIMESTAMP NOT NULL,
   app VARCHAR(255) NOT NULL,
   uri VARCHAR(255) NOT NULL,
-  ip VARCHAR(50) NOT NULL,
-  timestamp TIMESTAMP NOT NULL,
+  registers BYTEA NOT NULL,
   PRIMARY KEY (id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS hit_sketches_bucket_idx ON hit_sketches (granularity, bucket_start, uri);
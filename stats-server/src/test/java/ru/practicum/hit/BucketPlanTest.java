@@ -0,0 +1,62 @@
+package ru.practicum.hit;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.model.BucketGranularity;
+import ru.practicum.service.BucketPlan;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BucketPlanTest {
+    private static final List<BucketGranularity> GRANULARITIES =
+            List.of(BucketGranularity.DAY, BucketGranularity.HOUR, BucketGranularity.MINUTE);
+
+    @Test
+    void splitsRangeIntoCoarsestBucketsAndRawEdges() {
+        LocalDateTime from = LocalDateTime.of(2023, 1, 1, 22, 30, 15);
+        LocalDateTime to = LocalDateTime.of(2023, 1, 4, 1, 10, 5);
+
+        BucketPlan plan = BucketPlan.of(from, to, GRANULARITIES);
+
+        assertEquals(List.of(
+                new BucketPlan.Segment(BucketGranularity.MINUTE, LocalDateTime.of(2023, 1, 1, 22, 31),
+                        LocalDateTime.of(2023, 1, 1, 23, 0)),
+                new BucketPlan.Segment(BucketGranularity.HOUR, LocalDateTime.of(2023, 1, 1, 23, 0),
+                        LocalDateTime.of(2023, 1, 2, 0, 0)),
+                new BucketPlan.Segment(BucketGranularity.DAY, LocalDateTime.of(2023, 1, 2, 0, 0),
+                        LocalDateTime.of(2023, 1, 4, 0, 0)),
+                new BucketPlan.Segment(BucketGranularity.HOUR, LocalDateTime.of(2023, 1, 4, 0, 0),
+                        LocalDateTime.of(2023, 1, 4, 1, 0)),
+                new BucketPlan.Segment(BucketGranularity.MINUTE, LocalDateTime.of(2023, 1, 4, 1, 0),
+                        LocalDateTime.of(2023, 1, 4, 1, 10))
+        ), plan.buckets());
+        assertEquals(List.of(
+                new BucketPlan.Segment(null, from, LocalDateTime.of(2023, 1, 1, 22, 31)),
+                new BucketPlan.Segment(null, LocalDateTime.of(2023, 1, 4, 1, 10), to)
+        ), plan.raw());
+    }
+
+    @Test
+    void keepsShortRangeRaw() {
+        LocalDateTime from = LocalDateTime.of(2023, 1, 1, 10, 0, 10);
+        LocalDateTime to = LocalDateTime.of(2023, 1, 1, 10, 0, 50);
+
+        BucketPlan plan = BucketPlan.of(from, to, GRANULARITIES);
+
+        assertTrue(plan.buckets().isEmpty());
+        assertEquals(List.of(new BucketPlan.Segment(null, from, to)), plan.raw());
+    }
+
+    @Test
+    void alignedRangeHasNoRawEdges() {
+        LocalDateTime from = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 1, 3, 0, 0);
+
+        BucketPlan plan = BucketPlan.of(from, to, GRANULARITIES);
+
+        assertEquals(List.of(new BucketPlan.Segment(BucketGranularity.DAY, from, to)), plan.buckets());
+        assertTrue(plan.raw().isEmpty());
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.hit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.archive.ArchivedHit;
+import ru.practicum.archive.ColumnarHitFile;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarHitFileTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void readsBackHitsSortedByTimestamp() throws IOException {
+        long base = ColumnarHitFile.toMicros(LocalDateTime.of(2023, 1, 1, 0, 0));
+        List<ArchivedHit> hits = List.of(
+                new ArchivedHit(7, base + 5_000_000, "app", "/event/300", new byte[]{10, 0, 0, 2}),
+                new ArchivedHit(3, base, "other", "/event/1", new byte[]{10, 0, 0, 1}, 10),
+                new ArchivedHit(9, base + 1, "app", "/event/300", new byte[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1}));
+        Path file = directory.resolve("hits.col");
+
+        ColumnarHitFile.write(file, hits);
+        List<ArchivedHit> read = ColumnarHitFile.read(file);
+
+        assertEquals(List.of(3L, 9L, 7L), read.stream().map(ArchivedHit::id).toList());
+        assertEquals(List.of(base, base + 1, base + 5_000_000),
+                read.stream().map(ArchivedHit::timestampMicros).toList());
+        assertEquals(List.of("other", "app", "app"), read.stream().map(ArchivedHit::app).toList());
+        assertEquals(List.of("/event/1", "/event/300", "/event/300"), read.stream().map(ArchivedHit::uri).toList());
+        assertEquals(List.of(10, 1, 1), read.stream().map(ArchivedHit::weight).toList());
+        assertArrayEquals(hits.get(2).ip(), read.get(1).ip());
+    }
+
+    @Test
+    void compressesRepetitiveColumns() throws IOException {
+        long base = ColumnarHitFile.toMicros(LocalDateTime.of(2023, 1, 1, 0, 0));
+        List<ArchivedHit> hits = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            hits.add(new ArchivedHit(i, base + i * 1_000_000L, "app", "/event/" + i % 10, new byte[]{10, 0, 0, (byte) (i % 50)}));
+        }
+        Path file = directory.resolve("hits.col");
+
+        ColumnarHitFile.write(file, hits);
+
+        assertTrue(Files.size(file) < 10_000 * 2);
+        assertEquals(10_000, ColumnarHitFile.read(file).size());
+    }
+
+    @Test
+    void rejectsOtherFileVersions() throws IOException {
+        Path file = directory.resolve("hits.col");
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(0x48495443);
+            out.writeInt(2);
+            out.writeByte(0);
+        }
+
+        assertThrows(IOException.class, () -> ColumnarHitFile.read(file));
+    }
+
+    @Test
+    void convertsMicrosBothWays() {
+        LocalDateTime timestamp = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 123_456_000);
+
+        assertEquals(timestamp, ColumnarHitFile.fromMicros(ColumnarHitFile.toMicros(timestamp)));
+    }
+}
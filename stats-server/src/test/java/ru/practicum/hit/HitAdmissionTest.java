@@ -0,0 +1,103 @@
+package ru.practicum.hit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.HitDto;
+import ru.practicum.admission.Bulkhead;
+import ru.practicum.config.AdmissionProperties;
+import ru.practicum.controller.HitController;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.exception.TooManyRequestsException;
+import ru.practicum.service.ApproximateStats;
+import ru.practicum.service.HitService;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = HitController.class, properties = {
+        "stats.admission.enabled=true",
+        "stats.admission.ingest.permits=0",
+        "stats.admission.ingest.queue=0",
+        "stats.admission.retry-after=2s"})
+@Import(SimpleMeterRegistry.class)
+@EnableConfigurationProperties(AdmissionProperties.class)
+class HitAdmissionTest {
+
+    @MockBean
+    private HitService hitService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shedsIngestWhileQueriesStayAdmitted() throws Exception {
+        HitDto hitDto = new HitDto(null, "app", "/event/1", "192.168.1.1", "2023-01-01 12:00:00");
+        when(hitService.getEstimatedStats(any(), any(), any(), anyBoolean())).thenReturn(new ApproximateStats(List.of(), 0));
+
+        mockMvc.perform(post("/hit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(hitDto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.error").value("Too many requests"));
+
+        mockMvc.perform(get("/stats")
+                        .param("start", "2023-01-01 00:00:00")
+                        .param("end", "2023-01-02 00:00:00"))
+                .andExpect(status().isOk());
+
+        assertEquals(1, meterRegistry.get("stats.admission.rejected")
+                .tags("class", "ingest", "reason", "queue_full").counter().count());
+        assertEquals(0, meterRegistry.get("stats.admission.active").tag("class", "query").gauge().value());
+    }
+
+    @Test
+    void bulkheadQueuesThenTimesOut() {
+        Bulkhead bulkhead = new Bulkhead("test", new AdmissionProperties.Limits(1, 1, Duration.ofMillis(20)),
+                new SimpleMeterRegistry());
+
+        bulkhead.acquire();
+        assertThrows(ServiceUnavailableException.class, bulkhead::acquire);
+        assertEquals(1, bulkhead.active());
+        assertEquals(0, bulkhead.waiting());
+
+        bulkhead.release();
+        bulkhead.acquire();
+        assertEquals(1, bulkhead.active());
+    }
+
+    @Test
+    void bulkheadRejectsWhenQueueIsFull() {
+        Bulkhead bulkhead = new Bulkhead("test", new AdmissionProperties.Limits(1, 0, Duration.ofSeconds(1)),
+                new SimpleMeterRegistry());
+
+        bulkhead.acquire();
+        assertThrows(TooManyRequestsException.class, bulkhead::acquire);
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practicum.hit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.HitDto;
+import ru.practicum.StatsDto;
+import ru.practicum.config.ArchiveProperties;
+import ru.practicum.config.PartitionProperties;
+import ru.practicum.repository.HitArchiveRepository;
+import ru.practicum.repository.HitPartitionRepository;
+import ru.practicum.repository.HitRepository;
+import ru.practicum.service.BucketStats;
+import ru.practicum.service.HitArchiveService;
+import ru.practicum.service.HitService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(
+        properties = {"stats.archive.enabled=true", "stats.archive.older-than=36500d"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class HitArchiveServiceTest {
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    @TempDir
+    private static Path directory;
+
+    @Autowired
+    private HitService hitService;
+
+    @Autowired
+    private HitArchiveService hitArchiveService;
+
+    @Autowired
+    private HitRepository hitRepository;
+
+    @Autowired
+    private HitArchiveRepository hitArchiveRepository;
+
+    @Autowired
+    private ArchiveProperties properties;
+
+    @Autowired
+    private PartitionProperties partitionProperties;
+
+    @Autowired
+    private HitPartitionRepository hitPartitionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("stats.archive.directory", directory::toString);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        hitRepository.deleteAll();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+
+        hitService.createHits(List.of(
+                hit("/event/1", "192.168.1.1", base.plusHours(1)),
+                hit("/event/1", "192.168.1.1", base.plusHours(2)),
+                hit("/event/1", "192.168.1.2", base.plusDays(1).plusMinutes(5)),
+                hit("/event/1", "192.168.1.1", base.plusDays(2).plusHours(5)),
+                hit("/event/2", "192.168.1.3", base.plusDays(1).plusHours(3))
+        ));
+    }
+
+    @Test
+    void archivedHitsAreMergedWithLiveHits() {
+        LocalDateTime start = base.plusMinutes(30);
+        LocalDateTime end = base.plusDays(3);
+        List<StatsDto> hitsBefore = hitService.getStats(start, end, List.of(), false);
+        List<StatsDto> uniqueBefore = hitService.getStats(start, end, List.of(), true);
+
+        hitArchiveService.archiveBefore(base.plusDays(2));
+
+        assertEquals(1, hitRepository.count());
+        assertTrue(Files.exists(directory.resolve("hits-20230101-20230102.col")));
+        assertTrue(Files.exists(directory.resolve("hits-20230102-20230103.col")));
+        assertEquals(hitsBefore, hitService.getStats(start, end, List.of(), false));
+        assertEquals(uniqueBefore, hitService.getStats(start, end, List.of(), true));
+        assertEquals(List.of(new StatsDto("app", "/event/1", 4)),
+                hitService.getStats(start, end, List.of("/event/1"), false));
+        assertEquals(hitsBefore, streamStats(start, end, false));
+        assertEquals(uniqueBefore, streamStats(start, end, true));
+        assertEquals(List.of(new StatsDto("app", "/event/1", 2)),
+                hitService.getStats(start, end, List.of("/event/1"), true));
+    }
+
+    @Test
+    void lateHitsAreMergedIntoExistingArchive() {
+        hitArchiveService.archiveBefore(base.plusDays(1));
+        hitService.createHits(List.of(hit("/event/3", "192.168.1.4", base.plusHours(20))));
+
+        hitArchiveService.archiveBefore(base.plusDays(1));
+
+        assertEquals(3, hitRepository.count());
+        assertEquals(List.of(new StatsDto("app", "/event/1", 2), new StatsDto("app", "/event/3", 1)),
+                hitService.getStats(base, base.plusDays(1).minusSeconds(1), List.of(), false));
+    }
+
+    @Test
+    void archivesAreReadBackByNameAfterRestart() throws Exception {
+        hitArchiveService.archiveBefore(base.plusDays(2));
+        HitArchiveService restarted = new HitArchiveService(properties, partitionProperties, hitArchiveRepository,
+                hitPartitionRepository, hitRepository, transactionTemplate);
+
+        LocalDateTime end = base.plusDays(2).minusSeconds(1);
+        assertEquals(Optional.of(List.of(new StatsDto("app", "/event/1", 3), new StatsDto("app", "/event/2", 1))),
+                restarted.getStats(base, end, List.of(), false).map(BucketStats::toStatsDtos));
+        assertEquals(Optional.of(List.of(new StatsDto("app", "/event/2", 1))),
+                restarted.getStats(base, end, List.of("/event/2"), false).map(BucketStats::toStatsDtos));
+    }
+
+    @Test
+    void expiredArchivesAreDeleted() {
+        hitArchiveService.archiveBefore(base.plusDays(2));
+
+        hitArchiveService.expireBefore(base.plusDays(1));
+
+        assertFalse(Files.exists(directory.resolve("hits-20230101-20230102.col")));
+        assertTrue(Files.exists(directory.resolve("hits-20230102-20230103.col")));
+        assertEquals(List.of(new StatsDto("app", "/event/1", 2), new StatsDto("app", "/event/2", 1)),
+                hitService.getStats(base, base.plusDays(3), List.of(), false));
+    }
+
+    private List<StatsDto> streamStats(LocalDateTime start, LocalDateTime end, boolean unique) {
+        List<StatsDto> stats = new ArrayList<>();
+        hitService.streamStats(start, end, List.of(), unique, stats::add);
+        return stats;
+    }
+
+    private HitDto hit(String uri, String ip, LocalDateTime timestamp) {
+        return new HitDto(null, "app", uri, ip, timestamp.format(formatter));
+    }
+}
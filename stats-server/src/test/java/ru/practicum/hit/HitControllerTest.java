@@ -1,30 +1,46 @@
 package ru.practicum.hit;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.CompactHitDto;
+import ru.practicum.HitBinaryCodec;
 import ru.practicum.HitDto;
+import ru.practicum.HitStatusDto;
 import ru.practicum.StatsDto;
+import ru.practicum.config.AdmissionProperties;
 import ru.practicum.controller.HitController;
 import ru.practicum.projection.StatsProjection;
+import ru.practicum.service.ApproximateStats;
 import ru.practicum.service.HitService;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(HitController.class)
+@Import(SimpleMeterRegistry.class)
+@EnableConfigurationProperties(AdmissionProperties.class)
 class HitControllerTest {
 
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
@@ -60,6 +76,11 @@ class HitControllerTest {
             public Long getHits() {
                 return 10L;
             }
+
+            @Override
+            public Long getMatched() {
+                return 10L;
+            }
         };
     }
 
@@ -94,6 +115,63 @@ class HitControllerTest {
         verify(hitService, never()).createHit(any(HitDto.class));
     }
 
+    @Test
+    void createBinaryHit() throws Exception {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 5, 17, 12, 30, 15);
+        CompactHitDto compactHitDto = new CompactHitDto("app", "/event/1", "192.168.1.1",
+                HitBinaryCodec.toEpochMillis(timestamp));
+        HitDto hitDto = new HitDto(1L, "app", "/event/1", "192.168.1.1", timestamp.format(formatter));
+        when(hitService.createHit(any(CompactHitDto.class))).thenReturn(hitDto);
+
+        mockMvc.perform(post("/hit")
+                        .contentType(HitBinaryCodec.MEDIA_TYPE_VALUE)
+                        .content(HitBinaryCodec.encode(compactHitDto)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.timestamp").value(hitDto.getTimestamp()));
+
+        verify(hitService, times(1)).createHit(eq(compactHitDto));
+    }
+
+    @Test
+    void createBinaryHitMalformed() throws Exception {
+        mockMvc.perform(post("/hit")
+                        .contentType(HitBinaryCodec.MEDIA_TYPE_VALUE)
+                        .content(new byte[]{0, 1, 2}))
+                .andExpect(status().isBadRequest());
+
+        verify(hitService, never()).createHit(any(CompactHitDto.class));
+    }
+
+    @Test
+    void createHitsFromJsonArray() throws Exception {
+        List<HitStatusDto> statuses = List.of(new HitStatusDto(0, 201, null), new HitStatusDto(1, 201, null));
+        when(hitService.createHits(anyList())).thenReturn(statuses);
+
+        mockMvc.perform(post("/hits")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(hitDto, hitDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[1].status").value(201));
+
+        verify(hitService, times(1)).createHits(argThat(hits -> hits.size() == 2));
+    }
+
+    @Test
+    void createHitsFromNdjsonWithMalformedLine() throws Exception {
+        when(hitService.createHits(anyList())).thenReturn(List.of());
+        String body = objectMapper.writeValueAsString(hitDto) + "\n{not json\n\n" +
+                objectMapper.writeValueAsString(hitDto) + "\n";
+
+        mockMvc.perform(post("/hits")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk());
+
+        verify(hitService, times(1)).createHits(argThat(hits -> hits.size() == 3 && hits.get(1) == null));
+    }
+
     @Test
     void getStatsList() throws Exception {
         LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
@@ -108,7 +186,8 @@ class HitControllerTest {
 
 
         List<StatsDto> statsList = List.of(statsDto);
-        when(hitService.getStats(eq(start), eq(end), eq(uris), eq(true))).thenReturn(statsList);
+        when(hitService.getEstimatedStats(eq(start), eq(end), eq(uris), eq(true)))
+                .thenReturn(new ApproximateStats(statsList, 0));
 
 
         mockMvc.perform(get("/stats")
@@ -119,9 +198,46 @@ class HitControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].app").value("app"))
                 .andExpect(jsonPath("$[0].uri").value("/event/1"))
-                .andExpect(jsonPath("$[0].hits").value(10L));
+                .andExpect(jsonPath("$[0].hits").value(10L))
+                .andExpect(header().doesNotExist("X-Stats-Relative-Error"));
 
-        verify(hitService, times(1)).getStats(start, end, uris, true);
+        verify(hitService, times(1)).getEstimatedStats(start, end, uris, true);
+    }
+
+    @Test
+    void getStatsStatesErrorBoundWhenUniqueCountsAreEstimated() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 11, 3, 2, 1);
+        ApproximateStats stats = new ApproximateStats(List.of(new StatsDto("app", "/event/1", 5000)), 0.008125);
+        when(hitService.getEstimatedStats(start, end, List.of(), true)).thenReturn(stats);
+
+        mockMvc.perform(get("/stats")
+                        .param("start", start.format(formatter))
+                        .param("end", end.format(formatter))
+                        .param("unique", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Stats-Relative-Error", "0.0081"))
+                .andExpect(jsonPath("$[0].hits").value(5000));
+    }
+
+    @Test
+    void getApproximateUniqueStatsStatesErrorBound() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 11, 3, 2, 1);
+        ApproximateStats stats = new ApproximateStats(List.of(new StatsDto("app", "/event/1", 10)), 0.01625);
+        when(hitService.getApproximateUniqueStats(start, end, List.of("/event/1"))).thenReturn(stats);
+
+        mockMvc.perform(get("/stats")
+                        .param("start", start.format(formatter))
+                        .param("end", end.format(formatter))
+                        .param("uris", "/event/1")
+                        .param("unique", "true")
+                        .param("approximate", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Stats-Relative-Error", "0.0163"))
+                .andExpect(jsonPath("$[0].hits").value(10));
+
+        verify(hitService, never()).getEstimatedStats(any(), any(), any(), any());
     }
 
     @Test
@@ -133,7 +249,49 @@ class HitControllerTest {
                         .param("uris", "/events"))
                 .andExpect(status().isBadRequest());
 
-        verify(hitService, never()).getStats(any(), any(), any(), any());
+        verify(hitService, never()).getEstimatedStats(any(), any(), any(), any());
+    }
+
+    @Test
+    void getTopStats() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 1, 2, 0, 0);
+        when(hitService.getTopStats(start, end, 2)).thenReturn(List.of(
+                new StatsDto("app", "/events/2", 30), new StatsDto("app", "/events/1", 20)));
+
+        mockMvc.perform(get("/stats/top")
+                        .param("start", start.format(formatter))
+                        .param("end", end.format(formatter))
+                        .param("k", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].uri").value("/events/2"));
     }
 
-}
\ No newline at end of file
+    @Test
+    void streamStatsAsNdjson() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 1, 2, 0, 0);
+        doAnswer(invocation -> {
+            Consumer<StatsDto> consumer = invocation.getArgument(4);
+            consumer.accept(new StatsDto("app", "/event/1", 10));
+            consumer.accept(new StatsDto("app", "/event/2", 5));
+            return null;
+        }).when(hitService).streamStats(eq(start), eq(end), eq(List.of()), eq(false), any());
+
+        MvcResult result = mockMvc.perform(get("/stats")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("start", start.format(formatter))
+                        .param("end", end.format(formatter)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"app\":\"app\",\"uri\":\"/event/1\",\"hits\":10}\n" +
+                        "{\"app\":\"app\",\"uri\":\"/event/2\",\"hits\":5}\n"));
+
+        verify(hitService, never()).getEstimatedStats(any(), any(), any(), any());
+    }
+}
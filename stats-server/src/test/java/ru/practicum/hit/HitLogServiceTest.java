@@ -0,0 +1,134 @@
+package ru.practicum.hit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.CompactHitDto;
+import ru.practicum.HitBinaryCodec;
+import ru.practicum.config.IngestMode;
+import ru.practicum.config.IngestProperties;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.mapper.HitMapper;
+import ru.practicum.model.Hit;
+import ru.practicum.service.HitIngestPipeline;
+import ru.practicum.service.HitLogService;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class HitLogServiceTest {
+
+    @TempDir
+    private Path directory;
+
+    private HitIngestPipeline hitIngestPipeline;
+    private MeterRegistry meterRegistry;
+    private IngestProperties properties;
+    private List<Hit> written;
+
+    @BeforeEach
+    void setUp() {
+        hitIngestPipeline = mock(HitIngestPipeline.class);
+        meterRegistry = new SimpleMeterRegistry();
+        written = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Hit> batch = invocation.getArgument(0);
+            written.addAll(batch);
+            return null;
+        }).when(hitIngestPipeline).saveAll(anyList());
+
+        properties = new IngestProperties();
+        properties.setMode(IngestMode.LOG);
+        properties.getLog().setDirectory(directory);
+        properties.getLog().setReplayBatchSize(2);
+    }
+
+    @Test
+    void replaysAppendedHitsInBatches() {
+        HitLogService service = createService();
+        service.start();
+
+        service.append(List.of(hit("/event/1"), hit("/event/2"), hit("/event/3")));
+        service.replay();
+
+        assertEquals(List.of("/event/1", "/event/2", "/event/3"), written.stream().map(Hit::getUri).toList());
+        verify(hitIngestPipeline, times(2)).saveAll(anyList());
+        assertEquals(3.0, meterRegistry.get("stats.ingest.log.replayed").counter().count());
+        service.stop();
+    }
+
+    @Test
+    void keepsHitsWhenDatabaseIsUnavailable() {
+        HitLogService service = createService();
+        service.start();
+        doThrow(new IllegalStateException("database is down")).when(hitIngestPipeline).saveAll(anyList());
+
+        service.append(List.of(hit("/event/1")));
+        service.replay();
+        assertTrue(written.isEmpty());
+
+        doAnswer(invocation -> written.addAll(invocation.getArgument(0))).when(hitIngestPipeline).saveAll(anyList());
+        service.replay();
+
+        assertEquals(1, written.size());
+        service.stop();
+    }
+
+    @Test
+    void replaysHitsLeftFromPreviousRun() {
+        doThrow(new IllegalStateException("database is down")).when(hitIngestPipeline).saveAll(anyList());
+        HitLogService service = createService();
+        service.start();
+        service.append(List.of(hit("/event/1"), hit("/event/2")));
+        service.stop();
+
+        doAnswer(invocation -> written.addAll(invocation.getArgument(0))).when(hitIngestPipeline).saveAll(anyList());
+        HitLogService restarted = createService();
+        restarted.start();
+        restarted.replay();
+
+        assertEquals(2, written.size());
+        restarted.stop();
+    }
+
+    @Test
+    void rejectsHitsWhenNotRunning() {
+        HitLogService service = createService();
+
+        assertThrows(ServiceUnavailableException.class, () -> service.append(List.of(hit("/event/1"))));
+        assertFalse(service.isRunning());
+    }
+
+    @Test
+    void stopsAfterTheWebServer() {
+        assertTrue(createService().getPhase() < SmartLifecycle.DEFAULT_PHASE - 2048);
+    }
+
+    private HitLogService createService() {
+        HitMapper hitMapper = mock(HitMapper.class);
+        when(hitMapper.fromCompactDtoToHit(any())).thenAnswer(invocation -> {
+            CompactHitDto dto = invocation.getArgument(0);
+            return new Hit(null, dto.getUri(), dto.getApp(), dto.getIp(),
+                    HitBinaryCodec.fromEpochMillis(dto.getTimestamp()));
+        });
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        return new HitLogService(properties, hitIngestPipeline, hitMapper, transactionTemplate, meterRegistry);
+    }
+
+    private CompactHitDto hit(String uri) {
+        return new CompactHitDto("app", uri, "192.168.1.1",
+                HitBinaryCodec.toEpochMillis(LocalDateTime.of(2023, 1, 1, 0, 0)));
+    }
+}
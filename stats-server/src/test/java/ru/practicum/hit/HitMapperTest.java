@@ -4,7 +4,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.CompactHitDto;
+import ru.practicum.HitBinaryCodec;
 import ru.practicum.HitDto;
+import ru.practicum.exception.ValidationException;
 import ru.practicum.mapper.HitMapper;
 import ru.practicum.model.Hit;
 
@@ -79,4 +82,38 @@ class HitMapperTest {
             hitMapper.fromDtoToHit(invalidDto);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void fromDtoToHitEncodesDictionaryIds() {
+        Hit first = hitMapper.fromDtoToHit(hitDto);
+        Hit second = hitMapper.fromDtoToHit(new HitDto(null, "app", "/event/2", "::1", hitDto.getTimestamp()));
+
+        assertEquals(first.getAppId(), second.getAppId());
+        assertNotEquals(first.getUriId(), second.getUriId());
+        assertEquals("/event/2", hitMapper.uriName(second.getUriId()));
+        assertEquals(4, first.getIpAddress().length);
+        assertEquals(16, second.getIpAddress().length);
+        assertEquals("0:0:0:0:0:0:0:1", second.getIp());
+    }
+
+    @Test
+    void fromDtoToHitInvalidIp() {
+        HitDto invalidDto = new HitDto(1L, "app", "/event/1", "not-an-ip", hitDto.getTimestamp());
+
+        assertThrows(ValidationException.class, () -> hitMapper.fromDtoToHit(invalidDto));
+    }
+
+    @Test
+    void fromCompactDtoToHit() {
+        CompactHitDto compactHitDto = new CompactHitDto("app", "/event/1", "192.168.1.1",
+                HitBinaryCodec.toEpochMillis(timestamp));
+
+        Hit hitCreated = hitMapper.fromCompactDtoToHit(compactHitDto);
+
+        assertEquals("app", hitCreated.getApp());
+        assertEquals("/event/1", hitCreated.getUri());
+        assertEquals("192.168.1.1", hitCreated.getIp());
+        assertEquals(timestamp, hitCreated.getTimestamp());
+        assertEquals(compactHitDto, HitBinaryCodec.decodeAll(HitBinaryCodec.encode(compactHitDto)).get(0));
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.hit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.StatsDto;
+import ru.practicum.config.ParallelStatsProperties;
+import ru.practicum.model.Hit;
+import ru.practicum.service.BucketPlan;
+import ru.practicum.service.BucketStats;
+import ru.practicum.sketch.HyperLogLog;
+import ru.practicum.service.HitParallelStatsService;
+import ru.practicum.utils.IpAddresses;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HitParallelStatsServiceTest {
+    private final LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    private ParallelStatsProperties properties;
+    private HitParallelStatsService service;
+    private List<Hit> hits;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ParallelStatsProperties();
+        properties.setEnabled(true);
+        properties.setThreads(3);
+        properties.setChunk(Duration.ofDays(7));
+        properties.setMinRange(Duration.ofDays(14));
+        service = new HitParallelStatsService(properties);
+
+        hits = List.of(
+                hit("/event/1", "192.168.1.1", base.plusHours(1)),
+                hit("/event/1", "192.168.1.1", base.plusDays(10)),
+                hit("/event/1", "192.168.1.2", base.plusDays(20)),
+                hit("/event/2", "192.168.1.3", base.plusDays(30)),
+                hit("/event/1", "192.168.1.3", base.plusDays(40))
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void splitsRangeIntoDayAlignedChunks() {
+        List<BucketPlan.Segment> chunks = service.chunks(base.plusHours(6), base.plusDays(15));
+
+        assertEquals(3, chunks.size());
+        assertEquals(base.plusHours(6), chunks.get(0).from());
+        assertEquals(base.plusDays(7), chunks.get(0).to());
+        assertEquals(base.plusDays(14), chunks.get(1).to());
+        assertEquals(base.plusDays(15), chunks.get(2).to());
+    }
+
+    @Test
+    void mergesChunkCountsAndUniqueIps() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        LocalDateTime end = base.plusDays(45);
+
+        List<StatsDto> stats = service.getStats(base, end, (from, to) -> {
+            threads.add(Thread.currentThread().getName());
+            return load(from, to, false);
+        }).orElseThrow().toStatsDtos();
+        List<StatsDto> unique = service.getStats(base, end, (from, to) -> load(from, to, true)).orElseThrow().toStatsDtos();
+
+        assertEquals(List.of(new StatsDto("app", "/event/1", 4), new StatsDto("app", "/event/2", 1)), stats);
+        assertEquals(List.of(new StatsDto("app", "/event/1", 3), new StatsDto("app", "/event/2", 1)), unique);
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("stats-chunk-")));
+    }
+
+    @Test
+    void mergesUniqueIpsThroughSketches() {
+        BucketStats merged = service.getStats(base, base.plusDays(45), (from, to) -> {
+            BucketStats stats = new BucketStats();
+            for (int i = 0; i < 5_000; i++) {
+                stats.addIp("app", "/event/1", "10.0." + (i / 256) + "." + (i % 256));
+            }
+            return stats;
+        }).orElseThrow();
+
+        assertEquals(HyperLogLog.relativeError(BucketStats.SKETCH_PRECISION), merged.relativeError());
+        assertEquals(5_000, merged.toStatsDtos().get(0).getHits(),
+                5_000 * 3 * HyperLogLog.relativeError(BucketStats.SKETCH_PRECISION));
+    }
+
+    @Test
+    void bypassesNarrowRanges() {
+        assertTrue(service.getStats(base, base.plusDays(3), (from, to) -> load(from, to, false)).isEmpty());
+    }
+
+    @Test
+    void propagatesChunkFailures() {
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> service.getStats(base, base.plusDays(45), (from, to) -> {
+                    throw new IllegalStateException("chunk failed");
+                }));
+
+        assertEquals("chunk failed", failure.getMessage());
+    }
+
+    private BucketStats load(LocalDateTime from, LocalDateTime to, boolean unique) {
+        BucketStats stats = new BucketStats();
+        for (Hit hit : hits) {
+            if (!hit.getTimestamp().isBefore(from) && hit.getTimestamp().isBefore(to)) {
+                if (unique) {
+                    stats.addIp(hit.getApp(), hit.getUri(), IpAddresses.toBytes(hit.getIp()));
+                } else {
+                    stats.addCount(hit.getApp(), hit.getUri(), 1);
+                }
+            }
+        }
+        return stats;
+    }
+
+    private Hit hit(String uri, String ip, LocalDateTime timestamp) {
+        return new Hit(null, uri, "app", ip, timestamp);
+    }
+}
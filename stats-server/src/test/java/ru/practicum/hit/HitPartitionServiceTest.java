@@ -0,0 +1,192 @@
+package ru.practicum.hit;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.StatsDto;
+import ru.practicum.config.ArchiveProperties;
+import ru.practicum.config.PartitionProperties;
+import ru.practicum.model.Hit;
+import ru.practicum.repository.HitArchiveRepository;
+import ru.practicum.repository.HitPartitionRepository;
+import ru.practicum.repository.HitRepository;
+import ru.practicum.service.BucketStats;
+import ru.practicum.service.HitArchiveService;
+import ru.practicum.service.HitPartitionService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(
+        properties = {"stats.partition.enabled=true", "stats.partition.interval=day"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class HitPartitionServiceTest {
+    private final LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.1");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driverClassName", postgres::getDriverClassName);
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.sql.init.platform", () -> "postgresql");
+    }
+
+    @TestConfiguration
+    static class StatementRecorder {
+        @Bean
+        HibernatePropertiesCustomizer statementInspector() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                STATEMENTS.add(sql);
+                return sql;
+            });
+        }
+    }
+
+    @Autowired
+    private HitPartitionService hitPartitionService;
+
+    @Autowired
+    private HitPartitionRepository hitPartitionRepository;
+
+    @Autowired
+    private HitRepository hitRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PartitionProperties partitionProperties;
+
+    @Autowired
+    private HitArchiveRepository hitArchiveRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        hitRepository.deleteAll();
+        hitPartitionRepository.findRangePartitions()
+                .forEach(partition -> hitPartitionRepository.dropPartition(partition.name()));
+    }
+
+    @Test
+    void statsQueryScansOnlyMatchingPartitions() {
+        hitPartitionService.createPartitions(base, base.plusDays(3));
+        hitRepository.saveAll(List.of(
+                new Hit(null, "/event/1", "app", "192.168.1.1", base.plusHours(1)),
+                new Hit(null, "/event/1", "app", "192.168.1.2", base.plusDays(1).plusHours(1)),
+                new Hit(null, "/event/2", "app", "192.168.1.3", base.plusDays(2).plusHours(1))
+        ));
+
+        LocalDateTime start = base.plusDays(1);
+        LocalDateTime end = base.plusDays(1).plusHours(23);
+        STATEMENTS.clear();
+        hitRepository.findHitsByTimeRange(start, end, false);
+        String statsQuery = STATEMENTS.get(STATEMENTS.size() - 1);
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + statsQuery, String.class,
+                false, Timestamp.valueOf(start), Timestamp.valueOf(end)));
+
+        assertTrue(plan.contains("hits_p20230102"), plan);
+        assertFalse(plan.contains("hits_p20230101"), plan);
+        assertFalse(plan.contains("hits_p20230103"), plan);
+        assertFalse(plan.contains("hits_default"), plan);
+    }
+
+    @Test
+    void createPartitionMovesHitsOutOfDefaultPartition() {
+        hitRepository.save(new Hit(null, "/event/1", "app", "192.168.1.1", base.plusHours(1)));
+
+        hitPartitionService.createPartitions(base, base.plusDays(1));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits_default", Long.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits_p20230101", Long.class));
+    }
+
+    @Test
+    void createPartitionKeepsSampledHitWeights() {
+        Hit sampled = new Hit(null, "/event/1", "app", "192.168.1.1", base.plusHours(1));
+        sampled.setWeight(10);
+        hitRepository.saveAll(List.of(sampled, new Hit(null, "/event/1", "app", "192.168.1.2", base.plusHours(2))));
+
+        hitPartitionService.createPartitions(base, base.plusDays(1));
+
+        assertEquals(11, jdbcTemplate.queryForObject("SELECT SUM(weight) FROM hits_p20230101", Long.class));
+        assertEquals(11, hitRepository.findHitsByTimeRange(base, base.plusDays(1), false).get(0).getHits());
+    }
+
+    @Test
+    void retentionDropsExpiredPartitions() {
+        hitPartitionService.createPartitions(base, base.plusDays(2));
+        hitRepository.saveAll(List.of(
+                new Hit(null, "/event/1", "app", "192.168.1.1", base.plusHours(1)),
+                new Hit(null, "/event/1", "app", "192.168.1.2", base.plusDays(1).plusHours(1)),
+                new Hit(null, "/event/1", "app", "192.168.1.3", base.minusDays(1))
+        ));
+
+        hitPartitionService.dropPartitionsBefore(base.plusDays(1));
+
+        List<String> names = hitPartitionRepository.findRangePartitions().stream()
+                .map(HitPartitionRepository.HitPartition::name)
+                .toList();
+        assertEquals(List.of("hits_p20230102"), names);
+        assertEquals(1, hitRepository.count());
+    }
+
+    @Test
+    void archivingDetachesAndDropsWholePartitions(@TempDir Path directory) throws Exception {
+        hitPartitionService.createPartitions(base, base.plusDays(2));
+        hitRepository.saveAll(List.of(
+                new Hit(null, "/event/1", "app", "192.168.1.1", base.plusHours(1)),
+                new Hit(null, "/event/1", "app", "192.168.1.2", base.plusHours(2)),
+                new Hit(null, "/event/1", "app", "192.168.1.3", base.plusDays(1).plusHours(1))
+        ));
+        ArchiveProperties archiveProperties = new ArchiveProperties();
+        archiveProperties.setEnabled(true);
+        archiveProperties.setDirectory(directory);
+        HitArchiveService hitArchiveService = new HitArchiveService(archiveProperties, partitionProperties,
+                hitArchiveRepository, hitPartitionRepository, hitRepository, transactionTemplate);
+
+        hitArchiveService.archiveBefore(base.plusDays(1));
+
+        List<String> names = hitPartitionRepository.findRangePartitions().stream()
+                .map(HitPartitionRepository.HitPartition::name)
+                .toList();
+        assertEquals(List.of("hits_p20230102"), names);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_class WHERE relname = 'hits_p20230101'", Long.class));
+        assertTrue(Files.exists(directory.resolve("hits-20230101-20230102.col")));
+        assertEquals(1, hitRepository.count());
+        assertEquals(Optional.of(List.of(new StatsDto("app", "/event/1", 3))),
+                hitArchiveService.getStats(base, base.plusDays(2), List.of(), false).map(BucketStats::toStatsDtos));
+    }
+}
@@ -6,8 +6,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.mapper.HitMapper;
 import ru.practicum.model.Hit;
 import ru.practicum.projection.StatsProjection;
+import ru.practicum.repository.HitDictionaryRepository;
 import ru.practicum.repository.HitRepository;
 
 import java.time.LocalDateTime;
@@ -17,6 +20,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
+@Import({HitMapper.class, HitDictionaryRepository.class})
 class HitRepositoryTest {
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private LocalDateTime start;
@@ -88,6 +92,25 @@ class HitRepositoryTest {
         assertEquals(2L, stats2.getHits());
     }
 
+    @Test
+    void sumsSampledHitWeights() {
+        Hit sampled = new Hit(null, "/event/2", "app2", "192.168.1.3", start.plusHours(6));
+        sampled.setWeight(10);
+        entityManager.persist(sampled);
+        entityManager.flush();
+
+        List<StatsProjection> result = hitRepository.findHitsByTimeRangeAndUris(start, end, uris, false);
+        List<StatsProjection> unique = hitRepository.findHitsByTimeRangeAndUris(start, end, uris, true);
+        List<StatsProjection> counted = hitRepository.countHitsInRange(start, end);
+
+        assertEquals("/event/2", result.get(0).getUri());
+        assertEquals(12L, result.get(0).getHits());
+        assertEquals(3L, result.get(0).getMatched());
+        assertEquals(3L, result.get(1).getHits());
+        assertEquals(2L, unique.stream().filter(s -> s.getUri().equals("/event/2")).findFirst().orElseThrow().getHits());
+        assertEquals(12L, counted.stream().filter(s -> s.getUri().equals("/event/2")).findFirst().orElseThrow().getHits());
+    }
+
     @Test
     void findHitsEmptyResult() {
         List<String> uris = List.of("/event/3");
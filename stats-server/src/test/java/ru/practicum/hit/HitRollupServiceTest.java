@@ -0,0 +1,125 @@
+package ru.practicum.hit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.HitDto;
+import ru.practicum.StatsDto;
+import ru.practicum.repository.HitRepository;
+import ru.practicum.service.HitArchiveService;
+import ru.practicum.service.HitRollupService;
+import ru.practicum.service.HitService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(
+        properties = {"stats.rollup.enabled=true", "stats.archive.enabled=true", "stats.archive.older-than=36500d"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class HitRollupServiceTest {
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private HitService hitService;
+
+    @Autowired
+    private HitRollupService hitRollupService;
+
+    @Autowired
+    private HitRepository hitRepository;
+
+    @Autowired
+    private HitArchiveService hitArchiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private static Path directory;
+
+    @DynamicPropertySource
+    static void archiveProperties(DynamicPropertyRegistry registry) {
+        registry.add("stats.archive.directory", directory::toString);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        hitRepository.deleteAll();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        jdbcTemplate.update("DELETE FROM hit_rollups");
+
+        LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+        hitService.createHit(hit("/event/1", base.plusHours(1)));
+        hitService.createHits(List.of(
+                hit("/event/1", base.plusHours(1).plusMinutes(30).plusSeconds(5)),
+                hit("/event/1", base.plusDays(1).plusSeconds(59)),
+                hit("/event/2", base.plusDays(2).plusHours(3)),
+                hit("/event/2", base.plusDays(2).plusHours(3).plusMinutes(1))
+        ));
+    }
+
+    @Test
+    void keepsRollupsForEveryGranularity() {
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT SUM(hits) FROM hit_rollups WHERE granularity = 'MINUTE'", Long.class));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM hit_rollups WHERE granularity = 'HOUR'", Long.class));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM hit_rollups WHERE granularity = 'DAY'", Long.class));
+    }
+
+    @Test
+    void matchesRawAggregationForUnalignedRanges() {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 1, 30, 5);
+        LocalDateTime end = LocalDateTime.of(2023, 1, 3, 3, 0, 0);
+
+        List<StatsDto> result = hitRollupService.getStats(start, end, List.of());
+
+        assertEquals(List.of(new StatsDto("app", "/event/1", 2), new StatsDto("app", "/event/2", 1)), result);
+        assertEquals(result.size(), hitRepository.findHitsByTimeRange(start, end, false).size());
+    }
+
+    @Test
+    void countsArchivedHitsAtRawEdges() {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 1, 30, 5);
+        LocalDateTime end = LocalDateTime.of(2023, 1, 2, 0, 1, 0);
+        List<StatsDto> before = hitRollupService.getStats(start, end, List.of());
+
+        hitArchiveService.archiveBefore(LocalDateTime.of(2023, 1, 3, 0, 0));
+
+        assertEquals(List.of(new StatsDto("app", "/event/1", 2)), before);
+        assertEquals(2, hitRepository.count());
+        assertEquals(before, hitRollupService.getStats(start, end, List.of()));
+    }
+
+    @Test
+    void usesRollupsForNonUniqueStatsOnly() {
+        LocalDateTime start = LocalDateTime.of(2022, 12, 31, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 1, 4, 0, 0);
+
+        List<StatsDto> result = hitService.getStats(start, end, List.of("/event/2"), false);
+        assertEquals(List.of(new StatsDto("app", "/event/2", 2)), result);
+
+        jdbcTemplate.update("DELETE FROM hit_rollups");
+        assertTrue(hitService.getStats(start, end, List.of("/event/2"), false).isEmpty());
+        assertEquals(1, hitService.getStats(start, end, List.of("/event/2"), true).size());
+    }
+
+    private HitDto hit(String uri, LocalDateTime timestamp) {
+        return new HitDto(null, "app", uri, "192.168.1.1", timestamp.format(formatter));
+    }
+}
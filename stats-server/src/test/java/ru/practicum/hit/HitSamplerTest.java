@@ -0,0 +1,129 @@
+package ru.practicum.hit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.StatsDto;
+import ru.practicum.config.SamplingProperties;
+import ru.practicum.model.Hit;
+import ru.practicum.service.HitSampler;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HitSamplerTest {
+    private SamplingProperties properties;
+    private HitSampler sampler;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SamplingProperties();
+        properties.setEnabled(true);
+        properties.setRules(List.of(
+                new SamplingProperties.Rule("main", "/events/*", 10),
+                new SamplingProperties.Rule("other", null, 4)
+        ));
+        sampler = new HitSampler(properties);
+    }
+
+    @Test
+    void keepsScaledEstimateOfMatchedHits() {
+        List<Hit> hits = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            hits.add(hit("main", "/events/1", "10.0." + i / 256 + "." + i % 256));
+        }
+
+        List<Hit> kept = sampler.sample(hits);
+        long estimate = kept.stream().mapToLong(Hit::getWeight).sum();
+
+        assertTrue(kept.size() < 1_500, "kept " + kept.size());
+        assertEquals(10_000, estimate, 1_000);
+        assertTrue(kept.stream().allMatch(hit -> hit.getWeight() == 10));
+    }
+
+    @Test
+    void keepsOrDropsEveryHitOfAnAddress() {
+        List<Hit> hits = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            hits.add(hit("main", "/events/1", "10.0.0." + i % 100));
+        }
+
+        List<Hit> kept = sampler.sample(hits);
+
+        assertFalse(kept.isEmpty());
+        assertEquals(0, kept.size() % 10);
+        assertEquals(kept.size() / 10, kept.stream().map(Hit::getIp).distinct().count());
+    }
+
+    @Test
+    void scalesUniqueCountsOfSampledUris() {
+        Set<String> keptIps = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            Hit hit = hit("main", "/events/1", "10.1." + i / 256 + "." + i % 256);
+            for (int repeat = 0; repeat < 3; repeat++) {
+                if (sampler.sample(hit)) {
+                    keptIps.add(hit.getIp());
+                }
+            }
+        }
+
+        List<StatsDto> scaled = sampler.scaleUnique(List.of(
+                new StatsDto("main", "/events/1", keptIps.size()),
+                new StatsDto("main", "/compilations/1", 7)));
+
+        assertEquals("/events/1", scaled.get(0).getUri());
+        assertEquals(10_000, scaled.get(0).getHits(), 1_000);
+        assertEquals(new StatsDto("main", "/compilations/1", 7), scaled.get(1));
+    }
+
+    @Test
+    void keepsUnmatchedHitsWithUnitWeight() {
+        List<Hit> hits = List.of(hit("main", "/events"), hit("main", "/compilations/1"), hit("third", "/events/1"));
+
+        List<Hit> kept = sampler.sample(hits);
+
+        assertEquals(hits, kept);
+        assertTrue(kept.stream().allMatch(hit -> hit.getWeight() == 1));
+    }
+
+    @Test
+    void appliesAppWideRules() {
+        Hit hit = hit("other", "/anything");
+        sampler.sample(hit);
+
+        assertEquals(4, hit.getWeight());
+    }
+
+    @Test
+    void reportsSampledQueries() {
+        assertTrue(sampler.isSampled(List.of()));
+        assertTrue(sampler.isSampled(List.of("/compilations/1")));
+
+        properties.setRules(List.of(new SamplingProperties.Rule("main", "/events/*", 10)));
+        assertTrue(sampler.isSampled(List.of("/events", "/events/7")));
+        assertFalse(sampler.isSampled(List.of("/events")));
+
+        properties.setEnabled(false);
+        assertFalse(sampler.isSampled(List.of()));
+        assertTrue(sampler.sample(hit("main", "/events/1")));
+    }
+
+    @Test
+    void rejectsNonPositiveRates() {
+        properties.setRules(List.of(new SamplingProperties.Rule(null, null, 0)));
+
+        assertThrows(IllegalArgumentException.class, () -> new HitSampler(properties));
+    }
+
+    private Hit hit(String app, String uri) {
+        return hit(app, uri, "192.168.1.1");
+    }
+
+    private Hit hit(String app, String uri, String ip) {
+        return new Hit(null, uri, app, ip, LocalDateTime.of(2023, 1, 1, 0, 0));
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.hit;
 
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,14 +10,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ContextConfiguration;
 import ru.practicum.HitDto;
+import ru.practicum.HitStatusDto;
 import ru.practicum.StatsDto;
 import ru.practicum.exception.ValidationException;
 import ru.practicum.model.Hit;
 import ru.practicum.repository.HitRepository;
+import ru.practicum.service.ApproximateStats;
 import ru.practicum.service.HitService;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,6 +40,9 @@ public class HitServiceImplTest {
     @Autowired
     private HitRepository hitRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private HitDto hitDto;
 
     private LocalDateTime timestamp;
@@ -85,6 +93,38 @@ public class HitServiceImplTest {
         );
     }
 
+    @Test
+    void createHitsReportsStatusPerItem() {
+        HitDto blankApp = new HitDto(null, " ", "/event/3", "192.168.1.5", timestamp.format(formatter));
+        HitDto badTimestamp = new HitDto(null, "app1", "/event/3", "192.168.1.5", "01.01.2023");
+
+        List<HitStatusDto> result = hitService.createHits(Arrays.asList(hitDto, blankApp, null, badTimestamp, hitDto));
+
+        assertEquals(5, result.size());
+        assertEquals(List.of(201, 400, 400, 400, 201), result.stream().map(HitStatusDto::getStatus).toList());
+        assertEquals("app: must not be blank", result.get(1).getError());
+        assertEquals(6, hitRepository.findAll().size());
+    }
+
+    @Test
+    void recordsIngestAndQueryMetrics() {
+        double accepted = meterRegistry.counter("stats.hits.ingested", "status", "accepted").count();
+        double rejected = meterRegistry.counter("stats.hits.ingested", "status", "rejected").count();
+        HitDto blankApp = new HitDto(null, " ", "/event/3", "192.168.1.5", timestamp.format(formatter));
+
+        hitService.createHits(List.of(hitDto, blankApp));
+        hitService.getStats(LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2023, 1, 2, 0, 0),
+                List.of("/event/1"), false);
+
+        assertEquals(accepted + 1, meterRegistry.counter("stats.hits.ingested", "status", "accepted").count());
+        assertEquals(rejected + 1, meterRegistry.counter("stats.hits.ingested", "status", "rejected").count());
+        assertTrue(meterRegistry.get("stats.query")
+                .tags("uris", "true", "unique", "false", "source", "db")
+                .timer().count() > 0);
+        assertTrue(meterRegistry.get("stats.query.rows.read").tag("source", "db").summary().count() > 0);
+        assertTrue(meterRegistry.get("stats.repository.query").tag("query", "hits_by_time_range").timer().count() > 0);
+    }
+
     @Test
     void getStats() {
         LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
@@ -119,6 +159,19 @@ public class HitServiceImplTest {
         assertEquals(3, stats1.getHits(), "Expected 3 hits for /event/1");
     }
 
+    @Test
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    void uniqueStatsOverWideRangesMergeChunkSketches() {
+        ApproximateStats result = hitService.getEstimatedStats(LocalDateTime.of(2022, 1, 1, 0, 0),
+                LocalDateTime.of(2023, 12, 31, 0, 0), List.of(), true);
+
+        assertEquals(List.of(new StatsDto("app1", "/event/1", 2), new StatsDto("app2", "/event/2", 1)), result.stats());
+        assertEquals(0, result.relativeError());
+        assertTrue(meterRegistry.get("stats.query")
+                .tags("uris", "false", "unique", "true", "source", "parallel")
+                .timer().count() > 0);
+    }
+
     @Test
     void getStatsInvalidTimeRange() {
         LocalDateTime start = LocalDateTime.of(2023, 1, 2, 0, 0);
@@ -132,4 +185,20 @@ public class HitServiceImplTest {
                 "Invalid time range"
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamStats() {
+        List<StatsDto> streamed = new ArrayList<>();
+        hitService.streamStats(timestamp, timestamp.plusHours(3), List.of(), true, streamed::add);
+
+        assertEquals(List.of(new StatsDto("app1", "/event/1", 2), new StatsDto("app2", "/event/2", 1)), streamed);
+    }
+
+    @Test
+    void topStatsFallBackToExactCountsBeforeSummariesCoverTheRange() {
+        List<StatsDto> top = hitService.getTopStats(LocalDateTime.of(2023, 1, 1, 0, 0),
+                LocalDateTime.of(2023, 1, 1, 23, 59, 59), 1);
+
+        assertEquals(List.of(new StatsDto("app1", "/event/1", 3)), top);
+    }
+}
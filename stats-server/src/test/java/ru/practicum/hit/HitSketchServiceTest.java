@@ -0,0 +1,87 @@
+package ru.practicum.hit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.HitDto;
+import ru.practicum.StatsDto;
+import ru.practicum.repository.HitRepository;
+import ru.practicum.service.ApproximateStats;
+import ru.practicum.service.HitService;
+import ru.practicum.service.HitSketchService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(
+        properties = {"stats.sketch.enabled=true", "stats.sketch.flush-interval=PT1H"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class HitSketchServiceTest {
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    @Autowired
+    private HitService hitService;
+
+    @Autowired
+    private HitSketchService hitSketchService;
+
+    @Autowired
+    private HitRepository hitRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        hitRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM hit_sketches");
+
+        hitService.createHits(List.of(
+                hit("/event/1", "192.168.1.1", base.plusHours(1)),
+                hit("/event/1", "192.168.1.1", base.plusHours(2)),
+                hit("/event/1", "192.168.1.2", base.plusDays(1).plusMinutes(5)),
+                hit("/event/1", "192.168.1.3", base.plusDays(2).plusHours(5).plusMinutes(30)),
+                hit("/event/2", "192.168.1.1", base.plusDays(1).plusHours(3))
+        ));
+    }
+
+    @Test
+    void mergesInMemoryAndFlushedSketchesWithRawEdges() {
+        LocalDateTime start = base.plusMinutes(30);
+        LocalDateTime end = base.plusDays(2).plusHours(5).plusMinutes(45);
+
+        List<StatsDto> beforeFlush = hitSketchService.getUniqueStats(start, end, List.of());
+        hitSketchService.flush();
+        List<StatsDto> afterFlush = hitSketchService.getUniqueStats(start, end, List.of());
+
+        List<StatsDto> expected = List.of(new StatsDto("app", "/event/1", 3), new StatsDto("app", "/event/2", 1));
+        assertEquals(expected, beforeFlush);
+        assertEquals(expected, afterFlush);
+        assertTrue(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hit_sketches", Long.class) > 0);
+    }
+
+    @Test
+    void compactionKeepsEstimates() {
+        hitSketchService.flush();
+        hitService.createHit(hit("/event/1", "192.168.1.4", base.plusHours(1).plusMinutes(10)));
+        hitSketchService.flush();
+
+        hitSketchService.compact();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT granularity, bucket_start, app, uri " +
+                "FROM hit_sketches GROUP BY granularity, bucket_start, app, uri HAVING COUNT(*) > 1) fragmented", Long.class));
+        ApproximateStats stats = hitService.getApproximateUniqueStats(base, base.plusDays(3), List.of("/event/1"));
+        assertEquals(List.of(new StatsDto("app", "/event/1", 4)), stats.stats());
+        assertEquals(0.0163, stats.relativeError(), 0.0001);
+    }
+
+    private HitDto hit(String uri, String ip, LocalDateTime timestamp) {
+        return new HitDto(null, "app", uri, ip, timestamp.format(formatter));
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.hit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.StatsDto;
+import ru.practicum.config.ParallelStatsProperties;
+import ru.practicum.config.StatsCacheProperties;
+import ru.practicum.model.Hit;
+import ru.practicum.service.BucketLoader;
+import ru.practicum.service.BucketStats;
+import ru.practicum.service.HitParallelStatsService;
+import ru.practicum.service.HitStatsCache;
+import ru.practicum.utils.IpAddresses;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HitStatsCacheTest {
+    private final LocalDateTime now = LocalDateTime.of(2023, 1, 5, 12, 30);
+    private final LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    private MeterRegistry meterRegistry;
+    private HitStatsCache cache;
+    private List<Hit> hits;
+    private int loads;
+
+    @BeforeEach
+    void setUp() {
+        StatsCacheProperties properties = new StatsCacheProperties();
+        properties.setEnabled(true);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new HitStatsCache(properties, new HitParallelStatsService(new ParallelStatsProperties()), meterRegistry,
+                Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+
+        hits = new ArrayList<>(List.of(
+                hit("/event/1", "192.168.1.1", base.plusHours(1)),
+                hit("/event/1", "192.168.1.1", base.plusDays(1).plusHours(2)),
+                hit("/event/1", "192.168.1.2", base.plusDays(2).plusMinutes(5)),
+                hit("/event/2", "192.168.1.3", base.plusDays(2).plusHours(3)),
+                hit("/event/1", "192.168.1.3", now.minusMinutes(10))
+        ));
+    }
+
+    @Test
+    void mergesCachedBucketsWithLiveEdges() {
+        LocalDateTime start = base.plusMinutes(30);
+
+        List<StatsDto> stats = cache.getStats(start, now, List.of(), false, loader(List.of(), false)).orElseThrow().toStatsDtos();
+        List<StatsDto> unique = cache.getStats(start, now, List.of(), true, loader(List.of(), true)).orElseThrow().toStatsDtos();
+
+        assertEquals(List.of(new StatsDto("app", "/event/1", 4), new StatsDto("app", "/event/2", 1)), stats);
+        assertEquals(List.of(new StatsDto("app", "/event/1", 3), new StatsDto("app", "/event/2", 1)), unique);
+    }
+
+    @Test
+    void servesClosedBucketsFromCache() {
+        LocalDateTime start = base.plusMinutes(30);
+        cache.getStats(start, now, List.of("/event/1"), false, loader(List.of("/event/1"), false));
+        int coldLoads = loads;
+
+        loads = 0;
+        List<StatsDto> stats = cache.getStats(start, now, List.of("/event/1"), false, loader(List.of("/event/1"), false)).orElseThrow().toStatsDtos();
+
+        assertEquals(List.of(new StatsDto("app", "/event/1", 4)), stats);
+        assertTrue(loads < coldLoads);
+        assertTrue(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count() > 0);
+        assertTrue(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count() > 0);
+    }
+
+    @Test
+    void invalidatesBucketsReceivingLateHits() {
+        LocalDateTime start = base.plusMinutes(30);
+        cache.getStats(start, now, List.of(), false, loader(List.of(), false));
+
+        Hit late = hit("/event/2", "192.168.1.4", base.plusDays(1).plusHours(5));
+        hits.add(late);
+        cache.onHitsSaved(List.of(late));
+
+        assertEquals(List.of(new StatsDto("app", "/event/1", 4), new StatsDto("app", "/event/2", 2)),
+                cache.getStats(start, now, List.of(), false, loader(List.of(), false)).orElseThrow().toStatsDtos());
+    }
+
+    @Test
+    void invalidatesBucketsOnlyAfterCommit() {
+        LocalDateTime start = base.plusMinutes(30);
+        cache.getStats(start, now, List.of(), false, loader(List.of(), false));
+
+        Hit late = hit("/event/2", "192.168.1.4", base.plusDays(1).plusHours(5));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.onHitsSaved(List.of(late));
+            hits.add(late);
+            assertEquals(List.of(new StatsDto("app", "/event/1", 4), new StatsDto("app", "/event/2", 1)),
+                    cache.getStats(start, now, List.of(), false, loader(List.of(), false)).orElseThrow().toStatsDtos());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(new StatsDto("app", "/event/1", 4), new StatsDto("app", "/event/2", 2)),
+                cache.getStats(start, now, List.of(), false, loader(List.of(), false)).orElseThrow().toStatsDtos());
+    }
+
+    @Test
+    void bypassesRangesWithoutClosedBuckets() {
+        Optional<BucketStats> stats = cache.getStats(now.minusMinutes(30), now, List.of(), false,
+                loader(List.of(), false));
+
+        assertTrue(stats.isEmpty());
+        assertEquals(0, loads);
+    }
+
+    private BucketLoader loader(List<String> uris, boolean unique) {
+        return (from, to) -> load(from, to, uris, unique);
+    }
+
+    private BucketStats load(LocalDateTime from, LocalDateTime to, List<String> uris, boolean unique) {
+        loads++;
+        BucketStats stats = new BucketStats();
+        for (Hit hit : hits) {
+            if (!hit.getTimestamp().isBefore(from) && hit.getTimestamp().isBefore(to)
+                    && (uris.isEmpty() || uris.contains(hit.getUri()))) {
+                if (unique) {
+                    stats.addIp(hit.getApp(), hit.getUri(), IpAddresses.toBytes(hit.getIp()));
+                } else {
+                    stats.addCount(hit.getApp(), hit.getUri(), 1);
+                }
+            }
+        }
+        return stats;
+    }
+
+    private Hit hit(String uri, String ip, LocalDateTime timestamp) {
+        return new Hit(null, uri, "app", ip, timestamp);
+    }
+}
@@ -5,8 +5,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import jakarta.persistence.PersistenceException;
+import ru.practicum.mapper.HitMapper;
 import ru.practicum.model.Hit;
+import ru.practicum.repository.HitDictionaryRepository;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -14,6 +17,7 @@ import java.time.format.DateTimeFormatter;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
+@Import({HitMapper.class, HitDictionaryRepository.class})
 class HitTest {
 
     @Autowired
@@ -0,0 +1,63 @@
+package ru.practicum.hit;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.HitBinaryCodec;
+import ru.practicum.HitTimestamps;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HitTimestampsTest {
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Test
+    void matchesDateTimeFormatter() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            LocalDateTime timestamp = LocalDateTime.of(1 + random.nextInt(9999), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60));
+            String text = timestamp.format(formatter);
+
+            assertEquals(text, HitTimestamps.format(timestamp));
+            assertEquals(text, HitTimestamps.format(HitBinaryCodec.toEpochMillis(timestamp)));
+            assertEquals(timestamp, HitTimestamps.parse(text));
+            assertEquals(HitBinaryCodec.toEpochMillis(timestamp), HitTimestamps.parseEpochMillis(text));
+        }
+    }
+
+    @Test
+    void resolvesLikeSmartFormatter() {
+        assertEquals(LocalDateTime.parse("2023-02-30 10:00:00", formatter),
+                HitTimestamps.parse("2023-02-30 10:00:00"));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 10, 0), HitTimestamps.parse("2024-02-31 10:00:00"));
+        assertEquals(HitBinaryCodec.toEpochMillis(LocalDateTime.of(2023, 4, 30, 0, 0)),
+                HitTimestamps.parseEpochMillis("2023-04-31 00:00:00"));
+        assertEquals(LocalDateTime.parse("2023-12-31 24:00:00", formatter),
+                HitTimestamps.parse("2023-12-31 24:00:00"));
+        assertEquals(HitBinaryCodec.toEpochMillis(LocalDateTime.of(2024, 1, 1, 0, 0)),
+                HitTimestamps.parseEpochMillis("2023-12-31 24:00:00"));
+    }
+
+    @Test
+    void dropsFractionalSecondsWhenFormatting() {
+        assertEquals("2023-01-01 12:00:05",
+                HitTimestamps.format(LocalDateTime.of(2023, 1, 1, 12, 0, 5, 999_000_000)));
+        assertEquals("1969-12-31 23:59:59", HitTimestamps.format(-1L));
+    }
+
+    @Test
+    void rejectsMalformedText() {
+        for (String text : List.of("", "2023-01-01", "2023-01-01T10:00:00", "2023-13-01 10:00:00",
+                "2023-01-00 10:00:00", "2023-01-01 24:00:01", "2023-01-01 25:00:00", "2023-01-01 10:60:00",
+                "2023-01-01 10:00:6x", "01.01.2023 10:00:00", "2023-01-01 10:00:00 ")) {
+            assertThrows(DateTimeParseException.class, () -> LocalDateTime.parse(text, formatter), text);
+            assertThrows(DateTimeParseException.class, () -> HitTimestamps.parse(text), text);
+            assertThrows(DateTimeParseException.class, () -> HitTimestamps.parseEpochMillis(text), text);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.hit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.StatsDto;
+import ru.practicum.config.TopProperties;
+import ru.practicum.model.Hit;
+import ru.practicum.service.HitTopService;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HitTopServiceTest {
+    private final LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    private HitTopService hitTopService;
+
+    @BeforeEach
+    void setUp() {
+        TopProperties properties = new TopProperties();
+        properties.setEnabled(true);
+        properties.setCapacity(10);
+        properties.setRetention(Duration.ofDays(2));
+        hitTopService = new HitTopService(properties,
+                Clock.fixed(base.minusMinutes(30).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+
+        hitTopService.onHitsSaved(List.of(
+                hit("/events/1", base.plusMinutes(5)),
+                hit("/events/1", base.plusMinutes(10)),
+                hit("/events/2", base.plusMinutes(15)),
+                hit("/events/2", base.plusHours(1).plusMinutes(5)),
+                hit("/events/2", base.plusHours(1).plusMinutes(6)),
+                hit("/events/3", base.plusHours(2)),
+                hit("/events/4", base.minusDays(5))
+        ));
+    }
+
+    @Test
+    void mergesHourlySummaries() {
+        List<StatsDto> top = hitTopService.getTop(base, base.plusHours(3).minusSeconds(1), 2).orElseThrow();
+
+        assertEquals(List.of(new StatsDto("app", "/events/2", 3), new StatsDto("app", "/events/1", 2)), top);
+    }
+
+    @Test
+    void usesOnlyBucketsInRange() {
+        List<StatsDto> top = hitTopService.getTop(base.plusHours(1), base.plusHours(2).minusSeconds(1), 10)
+                .orElseThrow();
+
+        assertEquals(List.of(new StatsDto("app", "/events/2", 2)), top);
+    }
+
+    @Test
+    void declinesRangesNotAlignedToHours() {
+        assertTrue(hitTopService.getTop(base.plusHours(1), base.plusHours(1).plusMinutes(30), 10).isEmpty());
+        assertTrue(hitTopService.getTop(base.plusMinutes(5), base.plusHours(1).minusSeconds(1), 10).isEmpty());
+        assertTrue(hitTopService.getTop(base, base.plusHours(1), 10).isEmpty());
+    }
+
+    @Test
+    void declinesRangesNotCoveredSinceStartupOrPastRetention() {
+        assertTrue(hitTopService.getTop(base.minusHours(1), base.plusHours(1).minusSeconds(1), 10).isEmpty());
+        assertTrue(hitTopService.getTop(base.minusDays(6), base.minusDays(4).minusSeconds(1), 10).isEmpty());
+    }
+
+    private Hit hit(String uri, LocalDateTime timestamp) {
+        return new Hit(null, uri, "app", "192.168.1.1", timestamp);
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.hit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.StatsDto;
+import ru.practicum.config.WindowProperties;
+import ru.practicum.model.Hit;
+import ru.practicum.service.BucketStats;
+import ru.practicum.service.HitWindowService;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HitWindowServiceTest {
+    private final LocalDateTime started = LocalDateTime.of(2023, 1, 1, 12, 0, 30);
+    private final LocalDateTime now = started.plusHours(2);
+
+    private HitWindowService windowService;
+
+    @BeforeEach
+    void setUp() {
+        WindowProperties properties = new WindowProperties();
+        properties.setEnabled(true);
+        properties.setSpan(Duration.ofHours(3));
+
+        MutableClock clock = new MutableClock(started);
+        windowService = new HitWindowService(properties, clock);
+        clock.set(now);
+
+        windowService.onHitsSaved(List.of(
+                hit("/events/1", "192.168.1.1", now.minusMinutes(30)),
+                hit("/events/1", "192.168.1.1", now.minusMinutes(20)),
+                hit("/events/1", "192.168.1.2", now.minusMinutes(10)),
+                hit("/events/2", "192.168.1.3", now.minusMinutes(5))
+        ));
+    }
+
+    @Test
+    void servesRecentRangeFromMemory() {
+        Optional<BucketStats> stats = windowService.getStats(now.minusHours(1), now, List.of("/events/1"), false);
+        Optional<BucketStats> uniqueStats = windowService.getStats(now.minusHours(1), now, List.of(), true);
+
+        assertEquals(List.of(new StatsDto("app", "/events/1", 3)), stats.orElseThrow().toStatsDtos());
+        assertEquals(List.of(new StatsDto("app", "/events/1", 2), new StatsDto("app", "/events/2", 1)),
+                uniqueStats.orElseThrow().toStatsDtos());
+    }
+
+    @Test
+    void respectsBoundariesBetweenSlots() {
+        Optional<BucketStats> stats = windowService.getStats(now.minusMinutes(25), now.minusMinutes(8),
+                List.of("/events/1"), false);
+
+        assertEquals(List.of(new StatsDto("app", "/events/1", 2)), stats.orElseThrow().toStatsDtos());
+    }
+
+    @Test
+    void separatesAppsSharingUri() {
+        windowService.onHitsSaved(List.of(new Hit(null, "/events/1", "other", "192.168.1.9", now.minusMinutes(3))));
+
+        Optional<BucketStats> stats = windowService.getStats(now.minusHours(1), now, List.of("/events/1"), true);
+
+        assertEquals(List.of(new StatsDto("app", "/events/1", 2), new StatsDto("other", "/events/1", 1)),
+                stats.orElseThrow().toStatsDtos());
+    }
+
+    @Test
+    void estimatesLargeUniqueCountsFromSlotSketches() {
+        List<Hit> hits = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            hits.add(hit("/events/3", "10.0." + i / 256 + "." + i % 256, now.minusMinutes(40 + i % 5)));
+        }
+        windowService.onHitsSaved(hits);
+
+        BucketStats stats = windowService.getStats(now.minusHours(1), now, List.of("/events/3"), true).orElseThrow();
+
+        assertEquals(20_000, stats.toStatsDtos().get(0).getHits(), 400);
+        assertTrue(stats.relativeError() > 0);
+    }
+
+    @Test
+    void fallsBackWhenBoundarySplitsSlot() {
+        windowService.onHitsSaved(List.of(
+                hit("/events/1", "192.168.1.1", now.minusMinutes(15).withSecond(10)),
+                hit("/events/1", "192.168.1.1", now.minusMinutes(15).withSecond(50))
+        ));
+
+        assertTrue(windowService.getStats(now.minusMinutes(15).withSecond(20), now, List.of(), false).isEmpty());
+    }
+
+    @Test
+    void fallsBackOutsideCoveredRange() {
+        assertTrue(windowService.getStats(started.minusMinutes(1), now, List.of(), false).isEmpty());
+        assertTrue(windowService.getStats(now.minusHours(4), now, List.of(), false).isEmpty());
+    }
+
+    @Test
+    void fallsBackAfterFutureHit() {
+        windowService.onHitsSaved(List.of(hit("/events/1", "192.168.1.1", now.plusHours(1))));
+
+        assertTrue(windowService.getStats(now.minusHours(1), now.plusHours(2), List.of(), false).isEmpty());
+        assertTrue(windowService.getStats(now.minusHours(1), now, List.of(), false).isPresent());
+    }
+
+    private Hit hit(String uri, String ip, LocalDateTime timestamp) {
+        return new Hit(null, uri, "app", ip, timestamp);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(LocalDateTime time) {
+            set(time);
+        }
+
+        void set(LocalDateTime time) {
+            instant = time.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.hit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.config.IngestMode;
+import ru.practicum.config.IngestProperties;
+import ru.practicum.model.Hit;
+import ru.practicum.service.HitIngestPipeline;
+import ru.practicum.service.HitWriteBehindWriter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class HitWriteBehindWriterTest {
+
+    private HitIngestPipeline hitIngestPipeline;
+    private MeterRegistry meterRegistry;
+    private IngestProperties properties;
+    private List<Hit> written;
+
+    @BeforeEach
+    void setUp() {
+        hitIngestPipeline = mock(HitIngestPipeline.class);
+        meterRegistry = new SimpleMeterRegistry();
+        written = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Hit> batch = invocation.getArgument(0);
+            written.addAll(batch);
+            return null;
+        }).when(hitIngestPipeline).saveAll(anyList());
+
+        properties = new IngestProperties();
+        properties.setMode(IngestMode.WRITE_BEHIND);
+        properties.setQueueCapacity(3);
+        properties.setFlushSize(2);
+        properties.setFlushInterval(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void flushesRemainingHitsOnStop() {
+        HitWriteBehindWriter writer = createWriter();
+        writer.start();
+
+        assertTrue(writer.offer(hit("/event/1")));
+        writer.stop();
+
+        assertFalse(writer.isRunning());
+        assertEquals(1, written.size());
+        assertEquals(1.0, meterRegistry.get("stats.ingest.flushed").counter().count());
+    }
+
+    @Test
+    void flushesFullBatchWithoutWaitingForInterval() throws InterruptedException {
+        HitWriteBehindWriter writer = createWriter();
+        writer.start();
+
+        writer.offer(hit("/event/1"));
+        writer.offer(hit("/event/2"));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (written.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        writer.stop();
+
+        assertEquals(2, written.size());
+        verify(hitIngestPipeline, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void rejectsHitsWhenNotRunning() {
+        HitWriteBehindWriter writer = createWriter();
+
+        assertFalse(writer.offer(hit("/event/1")));
+        verify(hitIngestPipeline, never()).saveAll(anyList());
+    }
+
+    @Test
+    void doesNotStartInSyncMode() {
+        properties.setMode(IngestMode.SYNC);
+        HitWriteBehindWriter writer = createWriter();
+        writer.start();
+
+        assertFalse(writer.isEnabled());
+        assertFalse(writer.isRunning());
+    }
+
+    @Test
+    void stopsAfterTheWebServer() {
+        assertTrue(createWriter().getPhase() < SmartLifecycle.DEFAULT_PHASE - 2048);
+    }
+
+    private HitWriteBehindWriter createWriter() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        return new HitWriteBehindWriter(properties, hitIngestPipeline, transactionTemplate, meterRegistry);
+    }
+
+    private Hit hit(String uri) {
+        return new Hit(null, uri, "app", "192.168.1.1", LocalDateTime.of(2023, 1, 1, 0, 0));
+    }
+}
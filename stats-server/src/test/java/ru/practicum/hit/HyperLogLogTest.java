@@ -0,0 +1,113 @@
+package ru.practicum.hit;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.sketch.HyperLogLog;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimatesLargeCardinalityWithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        int cardinality = 100_000;
+        for (int i = 0; i < cardinality; i++) {
+            sketch.add("10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        double error = Math.abs(sketch.estimate() - cardinality) / (double) cardinality;
+        assertTrue(error < 3 * HyperLogLog.relativeError(12), "Relative error was " + error);
+    }
+
+    @Test
+    void countsSmallCardinalityExactlyEnough() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = 0; i < 3; i++) {
+            sketch.add("192.168.1.1");
+            sketch.add("192.168.1.2");
+            sketch.add("192.168.1.3");
+        }
+
+        assertEquals(3, sketch.estimate());
+    }
+
+    @Test
+    void mergeEstimatesUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (int i = 0; i < 1_000; i++) {
+            first.add("ip-" + i);
+            second.add("ip-" + (i + 500));
+        }
+
+        first.merge(second);
+
+        assertEquals(1_500, first.estimate(), 1_500 * 3 * HyperLogLog.relativeError(12));
+    }
+
+    @Test
+    void survivesSerialization() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        sketch.add("192.168.1.1");
+        sketch.add("192.168.1.2");
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertEquals(10, restored.getPrecision());
+        assertEquals(sketch.estimate(), restored.estimate());
+    }
+
+    @Test
+    void keepsSmallSetsSparseAndExact() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = 0; i < 500; i++) {
+            sketch.add("ip-" + i);
+            sketch.add("ip-" + i);
+        }
+
+        byte[] bytes = sketch.toBytes();
+
+        assertTrue(sketch.isExact());
+        assertEquals(500, sketch.estimate());
+        assertTrue(bytes.length < 500 * 10, "Sparse sketch took " + bytes.length + " bytes");
+        assertEquals(500, HyperLogLog.fromBytes(bytes).estimate());
+        assertTrue(new HyperLogLog(12).toBytes().length < 4);
+    }
+
+    @Test
+    void switchesToDenseRegistersPastSparseLimit() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add("ip-" + i);
+        }
+
+        assertFalse(sketch.isExact());
+        assertEquals((1 << 12) + 1, sketch.toBytes().length);
+        assertEquals(1_000, sketch.estimate(), 1_000 * 3 * HyperLogLog.relativeError(12));
+        assertEquals(sketch.estimate(), HyperLogLog.fromBytes(sketch.toBytes()).estimate());
+    }
+
+    @Test
+    void mergesSparseAndDenseSketches() {
+        HyperLogLog sparse = new HyperLogLog(12);
+        HyperLogLog dense = new HyperLogLog(12);
+        for (int i = 0; i < 10; i++) {
+            sparse.add("ip-" + i);
+        }
+        for (int i = 0; i < 2_000; i++) {
+            dense.add("ip-" + (i + 10));
+        }
+
+        HyperLogLog sparseFirst = sparse.copy();
+        sparseFirst.merge(dense);
+        dense.merge(sparse);
+
+        assertEquals(dense.estimate(), sparseFirst.estimate());
+        assertEquals(2_010, dense.estimate(), 2_010 * 3 * HyperLogLog.relativeError(12));
+    }
+
+    @Test
+    void rejectsMergeOfDifferentPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(10).merge(new HyperLogLog(12)));
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.hit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.segment.LogPosition;
+import ru.practicum.segment.SegmentLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentLogTest {
+    private static final int SEGMENT_SIZE = 64;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void readsAppendedRecordsAcrossSegments() throws IOException {
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(record(i));
+            }
+
+            List<String> records = new ArrayList<>();
+            LogPosition position = log.read(log.checkpoint(), 100, bytes -> records.add(text(bytes)));
+
+            assertEquals(expected(0, 10), records);
+            assertEquals(log.end(), position);
+            assertTrue(position.segment() > 0);
+        }
+    }
+
+    @Test
+    void readsInBatchesAndResumesFromCheckpointAfterReopen() throws IOException {
+        List<String> records = new ArrayList<>();
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(record(i));
+            }
+            log.commit(log.read(log.checkpoint(), 4, bytes -> records.add(text(bytes))));
+        }
+
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            log.append(record(10));
+            log.read(log.checkpoint(), 100, bytes -> records.add(text(bytes)));
+        }
+
+        assertEquals(expected(0, 11), records);
+    }
+
+    @Test
+    void deletesSegmentsBeforeCheckpoint() throws IOException {
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(record(i));
+            }
+            assertTrue(segmentCount() > 1);
+
+            log.commit(log.read(log.checkpoint(), 100, bytes -> {
+            }));
+
+            assertEquals(1, segmentCount());
+        }
+    }
+
+    @Test
+    void truncatesTornRecordOnRecovery() throws IOException {
+        LogPosition end;
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            log.append(record(0));
+            end = log.end();
+        }
+
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.toString().endsWith(".seg")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 5), end.offset());
+        }
+
+        List<String> records = new ArrayList<>();
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            assertEquals(end, log.end());
+            log.append(record(1));
+            log.read(log.checkpoint(), 100, bytes -> records.add(text(bytes)));
+        }
+
+        assertEquals(expected(0, 2), records);
+    }
+
+    @Test
+    void rejectsRecordLargerThanSegment() throws IOException {
+        try (SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE)) {
+            assertThrows(IllegalArgumentException.class, () -> log.append(new byte[SEGMENT_SIZE]));
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".seg")).count();
+        }
+    }
+
+    private byte[] record(int i) {
+        return ("record-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<String> expected(int from, int to) {
+        List<String> records = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            records.add("record-" + i);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.hit;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.sketch.SpaceSaving;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void keepsExactCountsBelowCapacity() {
+        SpaceSaving<String> summary = new SpaceSaving<>(10);
+        summary.add("/events/1");
+        summary.add("/events/2", 3);
+        summary.add("/events/1");
+
+        assertEquals(List.of(Map.entry("/events/2", 3L), Map.entry("/events/1", 2L)), summary.top(5));
+    }
+
+    @Test
+    void findsHeavyHittersInBoundedMemory() {
+        SpaceSaving<String> summary = new SpaceSaving<>(50);
+        for (int i = 0; i < 10_000; i++) {
+            summary.add("/events/" + i);
+            if (i % 10 == 0) {
+                summary.add("/events/hot");
+            }
+            if (i % 20 == 0) {
+                summary.add("/events/warm");
+            }
+        }
+
+        List<Map.Entry<String, Long>> top = summary.top(2);
+
+        assertEquals(50, summary.size());
+        assertEquals("/events/hot", top.get(0).getKey());
+        assertEquals("/events/warm", top.get(1).getKey());
+        assertTrue(top.get(0).getValue() >= 1_000);
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving<String>(0));
+    }
+}